@@ -0,0 +1,32 @@
+import javax.swing.AbstractListModel;
+
+// Модель списка поверх TaskArchive.View: как и PagedTaskListModel, JList
+// запрашивает только видимые строки, а задачи читаются из файла архива.
+class ArchiveListModel extends AbstractListModel<Task> {
+    private TaskArchive.View view;
+
+    ArchiveListModel(TaskArchive.View view) {
+        this.view = view;
+    }
+
+    void setView(TaskArchive.View view) {
+        int oldSize = this.view.size();
+        this.view = view;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (view.size() > 0) {
+            fireIntervalAdded(this, 0, view.size() - 1);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return view.size();
+    }
+
+    @Override
+    public Task getElementAt(int index) {
+        return view.get(index);
+    }
+}
@@ -0,0 +1,71 @@
+import java.awt.EventQueue;
+import java.lang.reflect.InvocationTargetException;
+
+// Сторож потока Swing. Раз в четверть порога ставит в очередь событий пустую
+// задачу и смотрит, когда она выполнится. Если задача ждёт дольше порога,
+// снимается стек потока Swing — он показывает, чем поток занят, — и
+// сохраняется в TaskMetrics. Задержка каждой проверки идёт в гистограмму edt.
+class EdtWatchdog {
+    private final long thresholdNanos;
+    private final long periodMillis;
+    private final TaskMetrics metrics;
+    private final Thread thread = new Thread(this::run, "edt-watchdog");
+    private volatile long postedAt;
+    private volatile boolean pending;
+    private volatile Thread eventThread;
+
+    EdtWatchdog(long thresholdMillis, TaskMetrics metrics) {
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.periodMillis = Math.max(10, thresholdMillis / 4);
+        this.metrics = metrics;
+        metrics.setEdtStallThresholdMillis(thresholdMillis);
+        thread.setDaemon(true);
+    }
+
+    // Поток Swing запоминается до первой проверки: иначе остановка в самом
+    // первом событии осталась бы без стека.
+    void start() {
+        if (EventQueue.isDispatchThread()) {
+            eventThread = Thread.currentThread();
+        } else {
+            try {
+                EventQueue.invokeAndWait(() -> eventThread = Thread.currentThread());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (InvocationTargetException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        thread.start();
+    }
+
+    private void run() {
+        boolean reported = false;
+        while (true) {
+            try {
+                Thread.sleep(periodMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (!pending) {
+                reported = false;
+                postedAt = now;
+                pending = true;
+                EventQueue.invokeLater(this::heartbeat);
+            } else if (!reported && now - postedAt > thresholdNanos && eventThread != null) {
+                // один стек на одну остановку, пока она не кончится
+                reported = true;
+                metrics.edtStalled((now - postedAt) / 1_000_000, eventThread.getStackTrace());
+            }
+        }
+    }
+
+    // AWT может заменить поток Swing (например, после исключения в обработчике),
+    // поэтому каждая проверка обновляет ссылку на него.
+    private void heartbeat() {
+        eventThread = Thread.currentThread();
+        metrics.edt.recordSince(postedAt);
+        pending = false;
+    }
+}
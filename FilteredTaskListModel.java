@@ -0,0 +1,291 @@
+import javax.swing.AbstractListModel;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+// Отфильтрованное и/или упорядоченное представление TaskListModel для JList.
+// Смена фильтра — запрос к TaskBitmapIndex и TaskSearchIndex, порядок и диапазон
+// ключей берутся из TaskOrderIndex; дальше изменения задач применяются точечно.
+//
+// Старое место изменённой задачи ищется по ключу, снятому с неё в taskUpdating.
+// В пакете изменений модели вставки и удаления строк копятся и отдаются JList
+// в конце пакета в том же порядке, соседние строки — одним событием; по ним
+// выделение JList сдвигается вместе с задачами. Изменённые на месте строки
+// объявляются одним событием contentsChanged.
+class FilteredTaskListModel extends AbstractListModel<Task> implements TaskListModel.Listener {
+    private static final int ADDED = 0;
+    private static final int REMOVED = 1;
+
+    private final TaskListModel source;
+    private final TaskBitmapIndex index;
+    private final TaskSearchIndex searchIndex;
+    private Set<String> tags = Collections.emptySet();
+    private Boolean completed;
+    private String[] queryTokens = new String[0];
+    // null — порядок добавления (по id)
+    private TaskOrderIndex order;
+    private final TaskOrderIndex.PendingKeys oldKeys = new TaskOrderIndex.PendingKeys();
+    private long fromKey = Long.MIN_VALUE;
+    private long toKey = Long.MAX_VALUE;
+    private long[] keys = new long[16];
+    private int[] ids = new int[16];
+    private int size;
+    private boolean inBatch;
+    // первая и последняя строки, изменённые в пакете на месте
+    private int changedFrom;
+    private int changedTo;
+    // вставки и удаления пакета тройками (вид, первая строка, последняя строка)
+    private int[] batchEvents = new int[3 * 16];
+    private int batchEventCount;
+    // строки выше не сдвигались и не менялись
+    private int touchedFrom;
+
+    FilteredTaskListModel(TaskListModel source, TaskBitmapIndex index, TaskSearchIndex searchIndex) {
+        this.source = source;
+        this.index = index;
+        this.searchIndex = searchIndex;
+    }
+
+    boolean isActive() {
+        return !tags.isEmpty() || completed != null || queryTokens.length > 0 || order != null;
+    }
+
+    void setFilter(Set<String> tags, Boolean completed, String query) {
+        setFilter(tags, completed, query, null, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // С order задачи идут в порядке индекса, и остаются только ключи из [fromKey, toKey].
+    void setFilter(Set<String> tags, Boolean completed, String query,
+                   TaskOrderIndex order, long fromKey, long toKey) {
+        this.tags = new HashSet<>(tags);
+        this.completed = completed;
+        this.queryTokens = TaskSearchIndex.tokenize(query);
+        this.order = order;
+        this.fromKey = fromKey;
+        this.toKey = toKey;
+        rebuild();
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public Task getElementAt(int index) {
+        return source.getById(ids[index]);
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        if (matches(task)) {
+            long key = keyOf(task);
+            insert(-position(key, task.getId()) - 1, key, task.getId());
+        }
+    }
+
+    @Override
+    public void taskUpdating(int index, Task task) {
+        oldKeys.add(keyOf(task));
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        int id = task.getId();
+        int position = position(oldKeys.next(), id);
+        boolean matches = matches(task);
+        long key = keyOf(task);
+        if (position >= 0 && matches && keys[position] == key) {
+            changed(position);
+            return;
+        }
+        if (position >= 0) {
+            removeAt(position);
+        }
+        if (matches) {
+            insert(-position(key, id) - 1, key, id);
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        int id = task.getId();
+        int position = position(keyOf(task), id);
+        if (position >= 0) {
+            removeAt(position);
+        }
+    }
+
+    @Override
+    public void batchStarted() {
+        inBatch = true;
+        changedFrom = Integer.MAX_VALUE;
+        changedTo = -1;
+        batchEventCount = 0;
+        touchedFrom = Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void batchFinished() {
+        inBatch = false;
+        for (int i = 0; i < batchEventCount; i++) {
+            int kind = batchEvents[3 * i];
+            int from = batchEvents[3 * i + 1];
+            int to = batchEvents[3 * i + 2];
+            if (kind == ADDED) {
+                fireIntervalAdded(this, from, to);
+            } else {
+                fireIntervalRemoved(this, from, to);
+            }
+        }
+        // строки, изменённые на месте, могли потом сдвинуться: тогда
+        // перерисовывается всё ниже первой затронутой строки
+        if (batchEventCount > 0) {
+            changedFrom = Math.min(changedFrom, touchedFrom);
+            changedTo = size - 1;
+        }
+        changedTo = Math.min(changedTo, size - 1);
+        if (changedFrom <= changedTo) {
+            fireContentsChanged(this, changedFrom, changedTo);
+        }
+    }
+
+    // Событие пакета в номерах строк после всех предыдущих событий пакета.
+    private void queue(int kind, int position) {
+        touchedFrom = Math.min(touchedFrom, position);
+        if (batchEventCount > 0 && batchEvents[3 * (batchEventCount - 1)] == kind) {
+            int last = 3 * (batchEventCount - 1);
+            int from = batchEvents[last + 1];
+            int to = batchEvents[last + 2];
+            if (kind == ADDED && position >= from && position <= to + 1) {
+                batchEvents[last + 2] = to + 1;
+                return;
+            }
+            if (kind == REMOVED && position == from) {
+                batchEvents[last + 2] = to + 1;
+                return;
+            }
+            if (kind == REMOVED && position == from - 1) {
+                batchEvents[last + 1] = position;
+                return;
+            }
+        }
+        if (3 * batchEventCount == batchEvents.length) {
+            batchEvents = Arrays.copyOf(batchEvents, batchEvents.length * 2);
+        }
+        batchEvents[3 * batchEventCount] = kind;
+        batchEvents[3 * batchEventCount + 1] = position;
+        batchEvents[3 * batchEventCount + 2] = position;
+        batchEventCount++;
+    }
+
+    private void rebuild() {
+        int oldSize = size;
+        BitSet matching = index.query(tags, completed);
+        if (queryTokens.length > 0) {
+            matching.and(searchIndex.query(queryTokens));
+        }
+        size = 0;
+        if (order == null) {
+            ensureCapacity(matching.cardinality());
+            for (int id = matching.nextSetBit(0); id >= 0; id = matching.nextSetBit(id + 1)) {
+                keys[size] = id;
+                ids[size++] = id;
+            }
+        } else {
+            int from = order.lowerBound(fromKey);
+            int to = toKey == Long.MAX_VALUE ? order.size() : order.lowerBound(toKey + 1);
+            ensureCapacity(Math.min(matching.cardinality(), to - from));
+            for (int i = from; i < to; i++) {
+                int id = order.idAt(i);
+                if (matching.get(id)) {
+                    keys[size] = order.keyAt(i);
+                    ids[size++] = id;
+                }
+            }
+        }
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        if (size > 0) {
+            fireIntervalAdded(this, 0, size - 1);
+        }
+    }
+
+    private boolean matches(Task task) {
+        if (order != null) {
+            long key = order.getKeyFunction().key(task);
+            if (key < fromKey || key > toKey) {
+                return false;
+            }
+        }
+        return (tags.isEmpty() || tags.contains(TaskBitmapIndex.tagKey(task)))
+                && (completed == null || completed == task.isCompleted())
+                && (queryTokens.length == 0 || TaskSearchIndex.matches(task, queryTokens));
+    }
+
+    private long keyOf(Task task) {
+        return order == null ? task.getId() : order.getKeyFunction().key(task);
+    }
+
+    // Позиция пары (ключ, id) как у Arrays.binarySearch: отрицательная, если её нет.
+    private int position(long key, int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key || (keys[mid] == key && ids[mid] < id)) {
+                low = mid + 1;
+            } else if (keys[mid] > key || ids[mid] > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        keys = new long[Math.max(16, capacity)];
+        ids = new int[keys.length];
+    }
+
+    private void insert(int position, long key, int id) {
+        if (size == ids.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        keys[position] = key;
+        ids[position] = id;
+        size++;
+        if (inBatch) {
+            queue(ADDED, position);
+        } else {
+            fireIntervalAdded(this, position, position);
+        }
+    }
+
+    private void removeAt(int position) {
+        System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+        size--;
+        if (inBatch) {
+            queue(REMOVED, position);
+        } else {
+            fireIntervalRemoved(this, position, position);
+        }
+    }
+
+    private void changed(int position) {
+        if (inBatch) {
+            changedFrom = Math.min(changedFrom, position);
+            changedTo = Math.max(changedTo, position);
+        } else {
+            fireContentsChanged(this, position, position);
+        }
+    }
+}
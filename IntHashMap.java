@@ -0,0 +1,145 @@
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+// Хеш-таблица с ключами int без упаковки в Integer: открытая адресация,
+// линейное пробирование, удаление со сдвигом назад.
+class IntHashMap<V> {
+    private static final int EMPTY = 0;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private Object zeroValue;
+
+    IntHashMap() {
+        this(16);
+    }
+
+    IntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(int key) {
+        return key == EMPTY ? hasZeroKey : values[slot(key)] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        if (key == EMPTY) {
+            return (V) zeroValue;
+        }
+        return (V) values[slot(key)];
+    }
+
+    @SuppressWarnings("unchecked")
+    V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        if (key == EMPTY) {
+            Object old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return (V) old;
+        }
+        int slot = slot(key);
+        Object old = values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if (old == null && ++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return (V) old;
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        if (key == EMPTY) {
+            Object old = zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return (V) old;
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        Object old = values[slot];
+        if (old == null) {
+            return null;
+        }
+        size--;
+        // сдвигаем назад следующие элементы цепочки, чтобы не оставлять «дыр»
+        int free = slot;
+        for (int i = (free + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = mix(keys[i]) & mask;
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                free = i;
+            }
+        }
+        keys[free] = EMPTY;
+        values[free] = null;
+        return (V) old;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEachValue(Consumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept((V) zeroValue);
+        }
+        for (Object value : values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+        while (values[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,21 @@
+import javax.swing.AbstractListModel;
+
+// Модель списка поверх PagedTaskStore: JList запрашивает только видимые строки,
+// поэтому открытие большого файла не зависит от числа задач.
+class PagedTaskListModel extends AbstractListModel<Task> {
+    private final PagedTaskStore store;
+
+    PagedTaskListModel(PagedTaskStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public int getSize() {
+        return store.size();
+    }
+
+    @Override
+    public Task getElementAt(int index) {
+        return store.get(index);
+    }
+}
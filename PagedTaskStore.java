@@ -0,0 +1,111 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Чтение снимка задач постранично, без загрузки всего файла в память.
+// При открытии читаются заголовок, словарь тегов и каталог страниц; задачи
+// декодируются страницами по TaskCodec.PAGE_SIZE штук, каждая страница читается
+// из файла отдельно, а последние прочитанные держатся в LRU-кэше. Файл не
+// отображается в память, поэтому другой процесс может тем временем заменить снимок.
+class PagedTaskStore implements Closeable {
+    private static final int MAX_CACHED_PAGES = 64;
+
+    private final FileChannel channel;
+    private final int size;
+    // начало каждой страницы; последний элемент — конец последней страницы
+    private final long[] pageOffsets;
+    private final String[] tags;
+    private final Map<Integer, Task[]> pages = new LinkedHashMap<Integer, Task[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Task[]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    private PagedTaskStore(FileChannel channel, int size, long[] pageOffsets, String[] tags) {
+        this.channel = channel;
+        this.size = size;
+        this.pageOffsets = pageOffsets;
+        this.tags = tags;
+    }
+
+    // Открывает снимок; null, если файла нет или он в формате без каталога страниц.
+    static PagedTaskStore open(File file) throws IOException {
+        if (!file.exists() || file.length() < TaskCodec.HEADER_SIZE || TaskCodec.isJavaSerialized(file)) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            TaskCodec.Header header = TaskCodec.readHeader(
+                    TaskCodec.readFully(channel, 0, (int) Math.min(fileSize, TaskCodec.HEADER_SIZE + 4)), file);
+            if (header.version < 2) {
+                channel.close();
+                return null;
+            }
+            int size = header.count;
+            int pageCount = (size + TaskCodec.PAGE_SIZE - 1) / TaskCodec.PAGE_SIZE;
+            long pageIndexOffset = TaskCodec.readFully(channel, fileSize - 8, 8).getLong();
+            if (pageIndexOffset < TaskCodec.HEADER_SIZE || pageIndexOffset + 8L * pageCount != fileSize - 8) {
+                throw new IOException("Файл задач повреждён: " + file);
+            }
+            long[] pageOffsets = new long[pageCount + 1];
+            TaskCodec.readFully(channel, pageIndexOffset, 8 * pageCount).asLongBuffer().get(pageOffsets, 0, pageCount);
+            pageOffsets[pageCount] = pageIndexOffset;
+            // заголовок и словарь тегов идут до первой задачи
+            ByteBuffer start = TaskCodec.readFully(channel, 0, (int) pageOffsets[0]);
+            TaskCodec.readHeader(start, file);
+            TaskCodec.Decoder decoder = new TaskCodec.Decoder(start);
+            decoder.readTagDictionary();
+            return new PagedTaskStore(channel, size, pageOffsets, decoder.getTags());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    synchronized Task get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageNumber = index / TaskCodec.PAGE_SIZE;
+        Task[] page = pages.get(pageNumber);
+        if (page == null) {
+            page = readPage(pageNumber);
+            pages.put(pageNumber, page);
+        }
+        return page[index % TaskCodec.PAGE_SIZE];
+    }
+
+    private Task[] readPage(int pageNumber) {
+        int first = pageNumber * TaskCodec.PAGE_SIZE;
+        Task[] page = new Task[Math.min(TaskCodec.PAGE_SIZE, size - first)];
+        long from = pageOffsets[pageNumber];
+        ByteBuffer buffer;
+        try {
+            buffer = TaskCodec.readFully(channel, from, (int) (pageOffsets[pageNumber + 1] - from));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TaskCodec.Decoder decoder = new TaskCodec.Decoder(buffer, tags);
+        for (int i = 0; i < page.length; i++) {
+            page[i] = decoder.readTask();
+        }
+        return page;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,172 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Напоминания о дедлайнах. Ближайшие напоминания лежат в упорядоченном
+// множестве (очередь с приоритетом, из которой можно удалить любой элемент
+// за O(log n)), а один поток спит до ближайшего из них — список задач
+// по таймеру не просматривается. Выполненные задачи и задачи без дедлайна не напоминаются.
+// Наступившие одновременно напоминания приходят одним вызовом. Если приложение
+// запущено позже времени напоминания, сегодняшние напоминания приходят сразу.
+class ReminderScheduler implements TaskListModel.Listener {
+    private static final class Reminder implements Comparable<Reminder> {
+        final long time;
+        final int id;
+        final String title;
+
+        Reminder(long time, int id, String title) {
+            this.time = time;
+            this.id = id;
+            this.title = title;
+        }
+
+        @Override
+        public int compareTo(Reminder other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Integer.compare(id, other.id);
+        }
+    }
+
+    private final LocalTime reminderTime;
+    private final Consumer<List<String>> onReminder;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final TreeSet<Reminder> queue = new TreeSet<>();
+    private final IntHashMap<Reminder> byId = new IntHashMap<>();
+    private final Thread thread = new Thread(this::run, "task-reminders");
+    private volatile boolean running = true;
+
+    // onReminder получает заголовки задач и вызывается в потоке напоминаний.
+    ReminderScheduler(LocalTime reminderTime, Consumer<List<String>> onReminder) {
+        this.reminderTime = reminderTime;
+        this.onReminder = onReminder;
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Можно вызывать из любого потока, например из фоновой загрузки.
+    // Пропущенные сегодня напоминания (время уже прошло) ставятся в очередь сразу.
+    void scheduleAll(Iterable<Task> tasks) {
+        lock.lock();
+        try {
+            queue.clear();
+            byId.clear();
+            long today = LocalDate.now().toEpochDay();
+            for (Task task : tasks) {
+                schedule(task, !task.isCompleted() && task.getDeadlineDay() == today);
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void shutdown() {
+        running = false;
+        thread.interrupt();
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        update(task);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        update(task);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        lock.lock();
+        try {
+            Reminder old = byId.remove(task.getId());
+            if (old != null) {
+                queue.remove(old);
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(Task task) {
+        lock.lock();
+        try {
+            if (schedule(task, false)) {
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Возвращает true, если очередь изменилась. Вызывается под блокировкой.
+    // С missed напоминание ставится, даже если его время прошло.
+    private boolean schedule(Task task, boolean missed) {
+        long time = reminderTime(task);
+        Reminder old = byId.get(task.getId());
+        if (old != null && old.time == time && Objects.equals(old.title, task.getTitle())) {
+            return false;
+        }
+        if (old != null) {
+            queue.remove(old);
+            byId.remove(task.getId());
+        }
+        if (time > System.currentTimeMillis() || missed) {
+            Reminder reminder = new Reminder(time, task.getId(), task.getTitle());
+            queue.add(reminder);
+            byId.put(task.getId(), reminder);
+            return true;
+        }
+        return old != null;
+    }
+
+    private long reminderTime(Task task) {
+        if (task.isCompleted() || !task.hasDeadline()) {
+            return Long.MIN_VALUE;
+        }
+        return LocalDate.ofEpochDay(task.getDeadlineDay()).atTime(reminderTime)
+                .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void run() {
+        while (running) {
+            List<String> due = null;
+            lock.lock();
+            try {
+                if (queue.isEmpty()) {
+                    changed.await();
+                } else {
+                    long now = System.currentTimeMillis();
+                    long delay = queue.first().time - now;
+                    if (delay > 0) {
+                        changed.await(delay, TimeUnit.MILLISECONDS);
+                    } else {
+                        due = new ArrayList<>();
+                        while (!queue.isEmpty() && queue.first().time <= now) {
+                            Reminder reminder = queue.pollFirst();
+                            byId.remove(reminder.id);
+                            due.add(reminder.title);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            if (due != null) {
+                onReminder.accept(due);
+            }
+        }
+    }
+}
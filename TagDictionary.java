@@ -0,0 +1,47 @@
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Общий на процесс словарь тегов. У всех задач с одинаковым тегом одна и та же
+// строка, а TaskTable хранит вместо строки её код. Код 0 — тега нет (null).
+// Тегов немного, поэтому коды не освобождаются.
+final class TagDictionary {
+    private static final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    // читается без блокировки; новый тег сначала попадает сюда, потом в codes
+    private static volatile String[] tags = new String[16];
+    private static int size = 1;
+
+    private TagDictionary() {
+    }
+
+    static int code(String tag) {
+        if (tag == null) {
+            return 0;
+        }
+        Integer code = codes.get(tag);
+        return code != null ? code : add(tag);
+    }
+
+    static String tag(int code) {
+        return tags[code];
+    }
+
+    // Та же строка тега, что и у остальных задач.
+    static String intern(String tag) {
+        return tag == null ? null : tags[code(tag)];
+    }
+
+    private static synchronized int add(String tag) {
+        Integer code = codes.get(tag);
+        if (code != null) {
+            return code;
+        }
+        String[] current = tags;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = tag;
+        tags = current;
+        codes.put(tag, size);
+        return size++;
+    }
+}
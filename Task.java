@@ -1,64 +1,232 @@
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.time.DateTimeException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Objects;
 
 public class Task implements Serializable {
     private static final long serialVersionUID = 1L;
-    
+    private static final DateTimeFormatter CREATED_AT_FORMAT = DateTimeFormatter.ofPattern("dd.MM HH:mm");
+    private static final DateTimeFormatter DEADLINE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    // дедлайн хранится как номер дня от 1970-01-01; NO_DEADLINE — дедлайна нет
+    public static final int NO_DEADLINE = Integer.MIN_VALUE;
+    // время выполнения неизвестно или задача не выполнена
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    // Поля старого формата tasks.dat (Java-сериализация), где дедлайн был строкой dd.MM.yyyy.
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("id", int.class),
+        new ObjectStreamField("title", String.class),
+        new ObjectStreamField("description", String.class),
+        new ObjectStreamField("tag", String.class),
+        new ObjectStreamField("deadline", String.class),
+        new ObjectStreamField("completed", boolean.class),
+        new ObjectStreamField("createdAt", LocalDateTime.class)
+    };
+
+    // Время хранится числом миллисекунд (местное время, записанное как UTC — так же,
+    // как в файле), а строка тега общая из TagDictionary: без двух объектов
+    // LocalDateTime задача (не считая строк) занимает около 64 байт вместо 120.
     private int id;
     private String title;
     private String description;
     private String tag;
-    private String deadline;
+    private int deadlineDay;
     private boolean completed;
-    private LocalDateTime createdAt;
+    private long createdAtMillis;
+    // когда задачу отметили выполненной; NO_TIME — не выполнена или выполнена
+    // до того, как это время стали хранить
+    private long completedAtMillis = NO_TIME;
+    // строка для списка; строится при первой отрисовке и сбрасывается сеттерами
+    private transient String displayText;
 
-    public Task(int id, String title, String description, String tag, String deadline) {
+    public Task(int id, String title, String description, String tag, int deadlineDay) {
         this.id = id;
         this.title = title;
         this.description = description;
-        this.tag = tag;
-        this.deadline = deadline;
+        this.tag = TagDictionary.intern(tag);
+        this.deadlineDay = deadlineDay;
         this.completed = false;
-        this.createdAt = LocalDateTime.now();
+        this.createdAtMillis = toMillis(LocalDateTime.now());
+    }
+
+    Task(int id, String title, String description, String tag, int deadlineDay,
+         boolean completed, LocalDateTime createdAt) {
+        this(id, title, description, tag, deadlineDay, completed, toMillis(createdAt), NO_TIME);
+    }
+
+    Task(int id, String title, String description, String tag, int deadlineDay,
+         boolean completed, long createdAtMillis, long completedAtMillis) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.tag = TagDictionary.intern(tag);
+        this.deadlineDay = deadlineDay;
+        this.completed = completed;
+        this.createdAtMillis = createdAtMillis;
+        this.completedAtMillis = completedAtMillis;
+    }
+
+    Task copy() {
+        return new Task(id, title, description, tag, deadlineDay, completed, createdAtMillis, completedAtMillis);
+    }
+
+    static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000),
+                Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    // Совпадают ли все поля, кроме id.
+    boolean sameContent(Task other) {
+        return deadlineDay == other.deadlineDay && completed == other.completed
+                && createdAtMillis == other.createdAtMillis && completedAtMillis == other.completedAtMillis
+                && Objects.equals(title, other.title) && Objects.equals(description, other.description)
+                && Objects.equals(tag, other.tag);
+    }
+
+    // Переносит все поля, кроме id и createdAt, например из задачи, записанной другим процессом.
+    void setContent(Task other) {
+        title = other.title;
+        description = other.description;
+        tag = other.tag;
+        deadlineDay = other.deadlineDay;
+        completed = other.completed;
+        completedAtMillis = other.completedAtMillis;
+        displayText = null;
     }
 
     public int getId() { return id; }
-    public void setId(int id) { this.id = id; }
     public String getTitle() { return title; }
-    public void setTitle(String title) { this.title = title; }
+    public void setTitle(String title) { this.title = title; displayText = null; }
     public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public void setDescription(String description) { this.description = description; displayText = null; }
     public String getTag() { return tag; }
-    public void setTag(String tag) { this.tag = tag; }
-    public String getDeadline() { return deadline; }
-    public void setDeadline(String deadline) { this.deadline = deadline; }
+    public void setTag(String tag) { this.tag = TagDictionary.intern(tag); displayText = null; }
+    public int getDeadlineDay() { return deadlineDay; }
+    public void setDeadlineDay(int deadlineDay) { this.deadlineDay = deadlineDay; displayText = null; }
+    public boolean hasDeadline() { return deadlineDay != NO_DEADLINE; }
     public boolean isCompleted() { return completed; }
-    public void setCompleted(boolean completed) { this.completed = completed; }
-    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCompleted(boolean completed) {
+        if (completed != this.completed) {
+            completedAtMillis = completed ? toMillis(LocalDateTime.now()) : NO_TIME;
+        }
+        this.completed = completed;
+        displayText = null;
+    }
+    public LocalDateTime getCreatedAt() { return toDateTime(createdAtMillis); }
+    public LocalDateTime getCompletedAt() { return completedAtMillis == NO_TIME ? null : toDateTime(completedAtMillis); }
+    long getCreatedAtMillis() { return createdAtMillis; }
+    long getCompletedAtMillis() { return completedAtMillis; }
+    // для задач, перенесённых из файла как есть
+    void setCompletedAtMillis(long completedAtMillis) { this.completedAtMillis = completedAtMillis; }
 
     @Override
     public String toString() {
-        String status = completed ? "[✓]" : "[ ]";
-        String time = createdAt.format(DateTimeFormatter.ofPattern("dd.MM HH:mm"));
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("%d. %s %s", id, status, title));
+        if (displayText == null) {
+            displayText = buildDisplayText();
+        }
+        return displayText;
+    }
+
+    private String buildDisplayText() {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(id).append(". ").append(completed ? "[✓]" : "[ ]").append(' ').append(title);
         
         if (tag != null && !tag.isEmpty()) {
             sb.append(" [").append(tag).append("]");
         }
         
-        if (deadline != null && !deadline.isEmpty()) {
-            sb.append(" 📅 ").append(deadline);
+        if (hasDeadline()) {
+            sb.append(" 📅 ");
+            DEADLINE_FORMAT.formatTo(LocalDate.ofEpochDay(deadlineDay), sb);
         }
         
         if (description != null && !description.isEmpty()) {
             sb.append(" - ").append(description);
         }
         
-        sb.append(" (").append(time).append(")");
+        sb.append(" (");
+        CREATED_AT_FORMAT.formatTo(getCreatedAt(), sb);
+        sb.append(")");
         return sb.toString();
     }
+
+    // Разбирает дедлайн старого строкового формата (dd.MM.yyyy, dd.MM.yy или dd.MM)
+    // без исключений; пустая или нераспознанная строка даёт NO_DEADLINE.
+    static int parseLegacyDeadline(String text) {
+        if (text == null) {
+            return NO_DEADLINE;
+        }
+        int length = text.length();
+        if ((length != 5 && length != 8 && length != 10)
+                || text.charAt(2) != '.' || (length > 5 && text.charAt(5) != '.')) {
+            return NO_DEADLINE;
+        }
+        int day = digits(text, 0, 2);
+        int month = digits(text, 3, 5);
+        int year = length == 5 ? LocalDate.now().getYear() : digits(text, 6, length);
+        if (day < 0 || month < 0 || year < 0) {
+            return NO_DEADLINE;
+        }
+        if (length == 8) {
+            year += 2000;
+        }
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            return NO_DEADLINE;
+        }
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return NO_DEADLINE;
+        }
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("id", id);
+        fields.put("title", title);
+        fields.put("description", description);
+        fields.put("tag", tag);
+        fields.put("deadline", hasDeadline() ? LocalDate.ofEpochDay(deadlineDay).format(DEADLINE_FORMAT) : "");
+        fields.put("completed", completed);
+        fields.put("createdAt", getCreatedAt());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        id = fields.get("id", 0);
+        title = (String) fields.get("title", null);
+        description = (String) fields.get("description", null);
+        tag = TagDictionary.intern((String) fields.get("tag", null));
+        deadlineDay = parseLegacyDeadline((String) fields.get("deadline", null));
+        completed = fields.get("completed", false);
+        LocalDateTime createdAt = (LocalDateTime) fields.get("createdAt", null);
+        createdAtMillis = toMillis(createdAt != null ? createdAt : LocalDateTime.now());
+        completedAtMillis = NO_TIME;
+    }
 }
@@ -0,0 +1,308 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+// Архив старых выполненных задач (tasks.dat.archive). Файл только дописывается:
+// запись [длина][crc][операция][данные] — задача ушла в архив (ARCHIVED, задача
+// целиком) или вернулась в список (RESTORED, id). Для одного id действует
+// последняя запись. Окно и журнал архив не читают; его открывают по запросу
+// через open, и тогда в памяти держатся только id, смещения и длины задач, а сами
+// задачи читаются из файла по одной, когда их просят. Файл не отображается в память,
+// чтобы его можно было обрезать и в Windows.
+class TaskArchive implements Closeable {
+    private static final byte OP_ARCHIVED = 1;
+    private static final byte OP_RESTORED = 2;
+    // столько байт за раз читает scan
+    private static final int SCAN_CHUNK = 1 << 16;
+
+    private final File file;
+    private FileChannel channel;
+    // для чтения задач из View; открыт, пока открыт архив
+    private FileChannel reader;
+    // до этого места файл проверен; дальше могут быть чужие записи или оборванный хвост
+    private long validEnd;
+
+    TaskArchive(File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    // Дописывает задачи в архив и ждёт, пока они лягут на диск.
+    synchronized void append(List<Task> tasks) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128 * tasks.size());
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (Task task : tasks) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream(128);
+            DataOutputStream payload = new DataOutputStream(record);
+            payload.writeByte(OP_ARCHIVED);
+            TaskCodec.writeTask(payload, task, null);
+            writeRecord(out, record.toByteArray());
+        }
+        write(buffer.toByteArray());
+    }
+
+    // Отмечает, что задачи вернулись в список; в архиве они больше не видны.
+    synchronized void markRestored(int[] ids) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(13 * ids.length);
+        DataOutputStream out = new DataOutputStream(buffer);
+        for (int id : ids) {
+            ByteBuffer payload = ByteBuffer.allocate(5);
+            payload.put(OP_RESTORED).putInt(id);
+            writeRecord(out, payload.array());
+        }
+        write(buffer.toByteArray());
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] bytes) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc.getValue());
+        out.write(bytes);
+    }
+
+    // Запись идёт под FileLock: архив могут дописывать несколько процессов.
+    // Оборванный хвост после сбоя отрезается, иначе за ним пропали бы и новые записи.
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            return;
+        }
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE);
+        }
+        FileLock lock = channel.lock();
+        try {
+            long size = channel.size();
+            if (size > validEnd) {
+                validEnd = scan(channel, validEnd, size, null);
+                if (validEnd < size) {
+                    channel.truncate(validEnd);
+                }
+            }
+            ByteBuffer data = ByteBuffer.wrap(bytes);
+            long offset = validEnd;
+            while (data.hasRemaining()) {
+                offset += channel.write(data, offset);
+            }
+            channel.force(false);
+            validEnd = offset;
+        } finally {
+            lock.release();
+        }
+    }
+
+    // Читает каталог архива: id и смещения задач, которые сейчас в архиве.
+    View open() throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return View.EMPTY;
+        }
+        FileChannel in = reader();
+        long size = in.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Архив задач слишком большой: " + file);
+        }
+        Catalog catalog = new Catalog();
+        scan(in, 0, size, catalog);
+        return catalog.toView(in);
+    }
+
+    private synchronized FileChannel reader() throws IOException {
+        if (reader == null) {
+            reader = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+        return reader;
+    }
+
+    // Проходит по целым записям файла с позиции from до size и возвращает конец последней из них.
+    private static long scan(FileChannel in, long from, long size, Catalog catalog) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_CHUNK).flip();
+        long position = from;
+        CRC32 crc = new CRC32();
+        while (size - position >= 9) {
+            // буфер начинается с очередной записи
+            buffer = fill(in, buffer, position, 8);
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            int expectedCrc = buffer.getInt(start + 4);
+            // в любой записи есть операция и id
+            if (length < 5 || length > size - position - 8) {
+                break;
+            }
+            buffer = fill(in, buffer, position, 8 + length);
+            start = buffer.position();
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(start + 8).limit(start + 8 + length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+            if (catalog != null) {
+                byte op = buffer.get(start + 8);
+                int id = buffer.getInt(start + 9);
+                catalog.add(id, op == OP_ARCHIVED ? (int) position + 9 : -1, length - 1);
+            }
+            buffer.position(start + 8 + length);
+            position += 8 + length;
+        }
+        return position;
+    }
+
+    // Дочитывает в buffer, чтобы от его позиции лежало не меньше count байт файла,
+    // начиная с position; при необходимости заменяет буфер большим.
+    private static ByteBuffer fill(FileChannel in, ByteBuffer buffer, long position, int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return buffer;
+        }
+        if (buffer.capacity() < count) {
+            buffer = ByteBuffer.allocate(count).put(buffer);
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < count) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Архив задач короче, чем ожидалось: " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    // Записи архива в порядке файла; для каждого id остаётся последняя.
+    private static final class Catalog {
+        private long[] entries = new long[1024];
+        private int[] offsets = new int[1024];
+        private int[] lengths = new int[1024];
+        private int count;
+
+        void add(int id, int offset, int length) {
+            if (count == entries.length) {
+                entries = Arrays.copyOf(entries, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            // id в старших битах, номер записи в младших: после сортировки
+            // записи одного id идут подряд, последняя — в конце
+            entries[count] = ((long) id << 32) | count;
+            offsets[count] = offset;
+            lengths[count] = length;
+            count++;
+        }
+
+        View toView(FileChannel channel) {
+            long[] sorted = Arrays.copyOf(entries, count);
+            Arrays.sort(sorted);
+            int[] ids = new int[count];
+            int[] taskOffsets = new int[count];
+            int[] taskLengths = new int[count];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                if (i + 1 < count && sorted[i + 1] >>> 32 == sorted[i] >>> 32) {
+                    continue;
+                }
+                int offset = offsets[(int) sorted[i]];
+                if (offset >= 0) {
+                    ids[size] = (int) (sorted[i] >>> 32);
+                    taskOffsets[size] = offset;
+                    taskLengths[size] = lengths[(int) sorted[i]];
+                    size++;
+                }
+            }
+            return new View(channel, Arrays.copyOf(ids, size), Arrays.copyOf(taskOffsets, size),
+                    Arrays.copyOf(taskLengths, size));
+        }
+    }
+
+    // Задачи архива по возрастанию id. Неизменяем, читать можно из любого потока;
+    // get каждый раз читает задачу из файла заново, поэтому в памяти остаются только
+    // видимые строки. Читать можно, пока архив не закрыт.
+    static final class View {
+        static final View EMPTY = new View(null, new int[0], new int[0], new int[0]);
+
+        private final FileChannel channel;
+        private final int[] ids;
+        private final int[] offsets;
+        private final int[] lengths;
+
+        private View(FileChannel channel, int[] ids, int[] offsets, int[] lengths) {
+            this.channel = channel;
+            this.ids = ids;
+            this.offsets = offsets;
+            this.lengths = lengths;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int getId(int index) {
+            return ids[index];
+        }
+
+        Task get(int index) {
+            try {
+                return TaskCodec.readTask(TaskCodec.readFully(channel, offsets[index], lengths[index]));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Вид без задач с указанными id, например уже вернувшихся в список.
+        View without(IntPredicate excluded) {
+            return select(i -> !excluded.test(ids[i]));
+        }
+
+        // Задачи, подходящие под фильтр; просматривает весь архив.
+        View filter(Predicate<Task> filter) {
+            return select(i -> filter.test(get(i)));
+        }
+
+        private View select(IntPredicate keep) {
+            int[] selectedIds = new int[ids.length];
+            int[] selectedOffsets = new int[ids.length];
+            int[] selectedLengths = new int[ids.length];
+            int size = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (keep.test(i)) {
+                    selectedIds[size] = ids[i];
+                    selectedOffsets[size] = offsets[i];
+                    selectedLengths[size] = lengths[i];
+                    size++;
+                }
+            }
+            if (size == ids.length) {
+                return this;
+            }
+            return new View(channel, Arrays.copyOf(selectedIds, size), Arrays.copyOf(selectedOffsets, size),
+                    Arrays.copyOf(selectedLengths, size));
+        }
+    }
+}
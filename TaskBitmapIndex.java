@@ -0,0 +1,80 @@
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+// Битовые индексы по тегу и статусу выполнения. Номер бита — id задачи,
+// поэтому обход результата идёт в порядке id, то есть в порядке показа.
+// Индексы обновляются при каждом изменении модели, а фильтр сводится к OR/AND битсетов.
+class TaskBitmapIndex implements TaskListModel.Listener {
+    private final Map<String, BitSet> byTag = new HashMap<>();
+    private final BitSet completed = new BitSet();
+    private final BitSet all = new BitSet();
+
+    TaskBitmapIndex(Iterable<Task> tasks) {
+        for (Task task : tasks) {
+            index(task);
+        }
+    }
+
+    // tags пустой — любой тег; completed == null — любой статус.
+    BitSet query(Set<String> tags, Boolean completed) {
+        BitSet result;
+        if (tags.isEmpty()) {
+            result = (BitSet) all.clone();
+        } else {
+            result = new BitSet();
+            for (String tag : tags) {
+                BitSet tagged = byTag.get(tag);
+                if (tagged != null) {
+                    result.or(tagged);
+                }
+            }
+        }
+        if (completed != null) {
+            if (completed) {
+                result.and(this.completed);
+            } else {
+                result.andNot(this.completed);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        index(task);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        unindexTag(task.getId());
+        index(task);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        int id = task.getId();
+        unindexTag(id);
+        all.clear(id);
+        completed.clear(id);
+    }
+
+    static String tagKey(Task task) {
+        return task.getTag() == null ? "" : task.getTag();
+    }
+
+    private void index(Task task) {
+        int id = task.getId();
+        all.set(id);
+        completed.set(id, task.isCompleted());
+        byTag.computeIfAbsent(tagKey(task), k -> new BitSet()).set(id);
+    }
+
+    // Тегов немного, поэтому старый тег не запоминаем, а снимаем бит во всех.
+    private void unindexTag(int id) {
+        for (BitSet tagged : byTag.values()) {
+            tagged.clear(id);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Консольный вход без окна: массовый импорт и экспорт задач.
+//
+//   java TaskCli export [файл.jsonl|файл.csv]   — без файла пишет JSON Lines в stdout
+//   java TaskCli import [файл.jsonl|файл.csv]   — без файла читает JSON Lines из stdin
+//   java TaskCli count
+//   java TaskCli archive [текст]                — задачи архива (JSON Lines), с текстом — только подходящие
+//
+// Формат выбирается по расширению, --csv или --jsonl задают его явно.
+// Работает с tasks.dat и tasks.log в текущем каталоге; AWT не загружается.
+class TaskCli {
+    private TaskCli() {
+    }
+
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "";
+        String fileName = null;
+        // для archive второй аргумент — текст поиска, а не файл
+        TaskFormat format = null;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--csv")) {
+                format = TaskFormat.CSV;
+            } else if (args[i].equals("--jsonl")) {
+                format = TaskFormat.JSONL;
+            } else {
+                fileName = args[i];
+            }
+        }
+        if (format == null) {
+            format = fileName == null ? TaskFormat.JSONL : TaskFormat.forFileName(fileName);
+        }
+
+        TaskRepository repository = new TaskRepository(new File(TaskRepository.SNAPSHOT_FILE),
+                new File(TaskRepository.LOG_FILE), 0, null);
+        int status = 0;
+        try {
+            switch (command) {
+                case "export":
+                    try (Writer out = fileName == null
+                            ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)
+                            : new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8), 1 << 16)) {
+                        int count = repository.exportTasks(out, format);
+                        System.err.println("Экспортировано задач: " + count);
+                    }
+                    break;
+                case "import":
+                    try (Reader in = new InputStreamReader(fileName == null ? System.in : new FileInputStream(fileName),
+                            StandardCharsets.UTF_8)) {
+                        int count = repository.importTasks(in, format);
+                        System.err.println("Импортировано задач: " + count);
+                    }
+                    break;
+                case "count":
+                    PagedTaskStore store = repository.openPaged();
+                    if (store != null) {
+                        System.out.println(store.size());
+                        store.close();
+                    } else {
+                        System.out.println(repository.exportTasks(Writer.nullWriter(), TaskFormat.JSONL));
+                    }
+                    break;
+                case "archive":
+                    String needle = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+                    TaskArchive.View view = repository.openArchive().filter(task -> needle.isEmpty()
+                            || task.getTitle().toLowerCase(Locale.ROOT).contains(needle)
+                            || (task.getDescription() != null && task.getDescription().toLowerCase(Locale.ROOT).contains(needle)));
+                    Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+                    if (format.header() != null) {
+                        out.write(format.header());
+                    }
+                    StringBuilder line = new StringBuilder(256);
+                    for (int i = 0; i < view.size(); i++) {
+                        line.setLength(0);
+                        format.append(line, view.get(i));
+                        out.append(line);
+                    }
+                    out.flush();
+                    System.err.println("Задач в архиве: " + view.size());
+                    break;
+                default:
+                    System.err.println("Использование: java TaskCli export|import [файл] [--csv|--jsonl]");
+                    System.err.println("               java TaskCli count");
+                    System.err.println("               java TaskCli archive [текст] [--csv|--jsonl]");
+                    status = 2;
+            }
+        } catch (IOException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            status = 1;
+        } finally {
+            repository.close();
+        }
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Двоичный формат снимка задач.
+//
+// Заголовок: magic, версия, номер последней записи журнала в снимке,
+// следующий свободный id (с версии 3), число задач, словарь тегов. Затем задачи подряд: id, флаги, createdAt (мс от эпохи),
+// время выполнения (с версии 4, только если оно известно), дедлайн (номер дня
+// от эпохи), код тега и строки UTF-8 с длиной в виде varint.
+// С версии 2 после задач идёт каталог страниц — смещения каждой PAGE_SIZE-й
+// задачи, а последние 8 байт файла указывают на начало каталога.
+// Старые файлы в формате Java-сериализации читаются один раз при миграции.
+final class TaskCodec {
+    static final int MAGIC = 0x54534B53; // "TSKS"
+    static final short VERSION = 4;
+    static final int PAGE_SIZE = 256;
+    static final int HEADER_SIZE = 18;
+
+    static final class Header {
+        short version;
+        long sequence;
+        int nextId;
+        int count;
+    }
+
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_DEADLINE_DAY = 2;
+    // дедлайн строкой — так писали снимки и журналы до перехода на номер дня
+    private static final int FLAG_DEADLINE_RAW = 4;
+    private static final int FLAG_COMPLETED_AT = 8;
+
+    private TaskCodec() {
+    }
+
+    static boolean isJavaSerialized(File file) throws IOException {
+        if (!file.exists() || file.length() < 2) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readUnsignedShort() == 0xACED;
+        }
+    }
+
+    // Читает снимок в список и возвращает его заголовок.
+    static Header read(File file, List<Task> tasks) throws IOException {
+        return read(file, tasks, tasks::add);
+    }
+
+    // Передаёт задачи снимка по одной, не собирая их в список.
+    static Header forEach(File file, Consumer<Task> action) throws IOException {
+        return read(file, null, action);
+    }
+
+    private static Header read(File file, List<Task> tasks, Consumer<Task> action) throws IOException {
+        if (!file.exists() || file.length() == 0) {
+            return new Header();
+        }
+        if (isJavaSerialized(file)) {
+            List<Task> legacy = new ArrayList<>();
+            Header header = readJavaSerialized(file, legacy);
+            legacy.forEach(action);
+            return header;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Файл задач слишком большой: " + file);
+            }
+            ByteBuffer buffer = readFully(channel, 0, (int) size);
+            Header header = readHeader(buffer, file);
+            int count = header.count;
+            Decoder decoder = new Decoder(buffer);
+            decoder.readTagDictionary();
+            if (tasks instanceof ArrayList) {
+                ((ArrayList<Task>) tasks).ensureCapacity(tasks.size() + count);
+            }
+            for (int i = 0; i < count; i++) {
+                action.accept(decoder.readTask());
+            }
+            return header;
+        } catch (RuntimeException e) {
+            throw new IOException("Файл задач повреждён: " + file, e);
+        }
+    }
+
+    // Байты файла с позиции position в буфере в куче. Файлы задач не отображаются в память:
+    // пока отображение не соберёт GC, Windows не даёт заменить или обрезать файл.
+    static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Файл короче, чем ожидалось");
+            }
+        }
+        return buffer.flip();
+    }
+
+    // Только заголовок снимка; у пустого файла и файла старого формата он пустой.
+    static Header readHeader(File file) throws IOException {
+        if (!file.exists() || file.length() < HEADER_SIZE || isJavaSerialized(file)) {
+            return new Header();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // с версии 3 в заголовке ещё и nextId
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), HEADER_SIZE + 4));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            return readHeader(buffer, file);
+        }
+    }
+
+    static Header readHeader(ByteBuffer buffer, File file) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Неизвестный формат файла задач: " + file);
+        }
+        Header header = new Header();
+        header.version = buffer.getShort();
+        if (header.version < 1 || header.version > VERSION) {
+            throw new IOException("Неподдерживаемая версия файла задач: " + header.version);
+        }
+        header.sequence = buffer.getLong();
+        header.nextId = header.version >= 3 ? buffer.getInt() : 0;
+        header.count = buffer.getInt();
+        return header;
+    }
+
+    static void write(File file, List<Task> tasks, long sequence, int nextId) throws IOException {
+        Map<String, Integer> tagCodes = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            String tag = task.getTag();
+            if (tag != null && !tagCodes.containsKey(tag)) {
+                tagCodes.put(tag, tagCodes.size() + 1);
+            }
+        }
+
+        long[] pageOffsets = new long[(tasks.size() + PAGE_SIZE - 1) / PAGE_SIZE];
+        try (FileOutputStream fos = new FileOutputStream(file);
+             CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(fos, 1 << 16));
+             DataOutputStream out = new DataOutputStream(counter)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(sequence);
+            out.writeInt(nextId);
+            out.writeInt(tasks.size());
+            writeVarInt(out, tagCodes.size());
+            for (String tag : tagCodes.keySet()) {
+                writeString(out, tag);
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                if (i % PAGE_SIZE == 0) {
+                    pageOffsets[i / PAGE_SIZE] = counter.count;
+                }
+                writeTask(out, tasks.get(i), tagCodes);
+            }
+            long pageIndexOffset = counter.count;
+            for (long offset : pageOffsets) {
+                out.writeLong(offset);
+            }
+            out.writeLong(pageIndexOffset);
+            out.flush();
+            fos.getFD().sync();
+        }
+    }
+
+    // Без словаря (tagCodes == null) тег пишется строкой — так делает журнал.
+    static void writeTask(DataOutputStream out, Task task, Map<String, Integer> tagCodes) throws IOException {
+        int flags = task.isCompleted() ? FLAG_COMPLETED : 0;
+        if (task.hasDeadline()) {
+            flags |= FLAG_DEADLINE_DAY;
+        }
+        if (task.getCompletedAtMillis() != Task.NO_TIME) {
+            flags |= FLAG_COMPLETED_AT;
+        }
+
+        out.writeInt(task.getId());
+        out.writeByte(flags);
+        out.writeLong(task.getCreatedAtMillis());
+        if ((flags & FLAG_COMPLETED_AT) != 0) {
+            out.writeLong(task.getCompletedAtMillis());
+        }
+        if ((flags & FLAG_DEADLINE_DAY) != 0) {
+            out.writeInt(task.getDeadlineDay());
+        }
+        if (tagCodes != null) {
+            writeVarInt(out, task.getTag() == null ? 0 : tagCodes.get(task.getTag()));
+        } else {
+            writeString(out, task.getTag());
+        }
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+    }
+
+    static Task readTask(ByteBuffer buffer) {
+        return new Decoder(buffer).readTask();
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Header readJavaSerialized(File file, List<Task> tasks) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            List<Task> legacy = (List<Task>) ois.readObject();
+            tasks.addAll(legacy);
+            Header header = new Header();
+            header.count = legacy.size();
+            try {
+                header.sequence = ois.readLong();
+            } catch (EOFException e) {
+                header.sequence = 0;
+            }
+            return header;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Пишет снимок потоком, не держа задачи в памяти. Словарь тегов стоит перед
+    // задачами, а полностью известен только в конце, поэтому задачи сначала
+    // пишутся во временный файл и в finish переносятся за заголовок.
+    static final class StreamWriter implements Closeable {
+        private final File file;
+        private final File bodyFile;
+        private final CountingOutputStream counter;
+        private final DataOutputStream body;
+        private final Map<String, Integer> tagCodes = new LinkedHashMap<>();
+        private long[] pageOffsets = new long[16];
+        private int count;
+
+        StreamWriter(File file) throws IOException {
+            this.file = file;
+            this.bodyFile = new File(file.getPath() + ".body");
+            this.counter = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(bodyFile), 1 << 16));
+            this.body = new DataOutputStream(counter);
+        }
+
+        void write(Task task) throws IOException {
+            String tag = task.getTag();
+            if (tag != null && !tagCodes.containsKey(tag)) {
+                tagCodes.put(tag, tagCodes.size() + 1);
+            }
+            if (count % PAGE_SIZE == 0) {
+                int page = count / PAGE_SIZE;
+                if (page == pageOffsets.length) {
+                    pageOffsets = Arrays.copyOf(pageOffsets, page * 2);
+                }
+                pageOffsets[page] = counter.count;
+            }
+            writeTask(body, task, tagCodes);
+            count++;
+        }
+
+        void finish(long sequence, int nextId) throws IOException {
+            body.flush();
+            long bodyLength = counter.count;
+            try (FileOutputStream fos = new FileOutputStream(file);
+                 CountingOutputStream headerCounter = new CountingOutputStream(fos);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(headerCounter, 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeShort(VERSION);
+                out.writeLong(sequence);
+                out.writeInt(nextId);
+                out.writeInt(count);
+                writeVarInt(out, tagCodes.size());
+                for (String tag : tagCodes.keySet()) {
+                    writeString(out, tag);
+                }
+                out.flush();
+                long bodyStart = headerCounter.count;
+                try (FileChannel in = FileChannel.open(bodyFile.toPath(), StandardOpenOption.READ)) {
+                    for (long position = 0; position < bodyLength; ) {
+                        position += in.transferTo(position, bodyLength - position, fos.getChannel());
+                    }
+                }
+                for (int page = 0; page < (count + PAGE_SIZE - 1) / PAGE_SIZE; page++) {
+                    out.writeLong(bodyStart + pageOffsets[page]);
+                }
+                out.writeLong(bodyStart + bodyLength);
+                out.flush();
+                fos.getFD().sync();
+            }
+        }
+
+        // Удаляет временный файл; без finish снимок остаётся недописанным.
+        @Override
+        public void close() throws IOException {
+            body.close();
+            Files.deleteIfExists(bodyFile.toPath());
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    static final class Decoder {
+        private final ByteBuffer buffer;
+        private String[] tags;
+        private byte[] scratch = new byte[256];
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        Decoder(ByteBuffer buffer, String[] tags) {
+            this.buffer = buffer;
+            this.tags = tags;
+        }
+
+        String[] getTags() {
+            return tags;
+        }
+
+        void readTagDictionary() {
+            int count = readVarInt();
+            tags = new String[count + 1];
+            for (int i = 1; i <= count; i++) {
+                tags[i] = TagDictionary.intern(readString());
+            }
+        }
+
+        Task readTask() {
+            int id = buffer.getInt();
+            int flags = buffer.get();
+            long createdAtMillis = buffer.getLong();
+            long completedAtMillis = (flags & FLAG_COMPLETED_AT) != 0 ? buffer.getLong() : Task.NO_TIME;
+            int deadlineDay = Task.NO_DEADLINE;
+            if ((flags & FLAG_DEADLINE_DAY) != 0) {
+                deadlineDay = buffer.getInt();
+            } else if ((flags & FLAG_DEADLINE_RAW) != 0) {
+                deadlineDay = Task.parseLegacyDeadline(readString());
+            }
+            String tag = tags != null ? tags[readVarInt()] : readString();
+            String title = readString();
+            String description = readString();
+            return new Task(id, title, description, tag, deadlineDay, (flags & FLAG_COMPLETED) != 0,
+                    createdAtMillis, completedAtMillis);
+        }
+
+        private String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Следит за каталогом с файлами задач и вызывает onChange, когда они меняются.
+// Свои записи тоже дают события — TaskJournal.refresh тогда просто ничего
+// не находит. События, пришедшие подряд в пределах DEBOUNCE_MILLIS, дают один вызов.
+class TaskFileWatcher implements Closeable {
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private final WatchService service;
+    private final Set<String> fileNames;
+    private final Runnable onChange;
+    private final Thread thread = new Thread(this::run, "task-watcher");
+
+    TaskFileWatcher(File directory, Set<String> fileNames, Runnable onChange) throws IOException {
+        this.fileNames = fileNames;
+        this.onChange = onChange;
+        Path path = directory.toPath();
+        this.service = path.getFileSystem().newWatchService();
+        path.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+
+    private void run() {
+        // файлы могли измениться ещё до начала наблюдения
+        onChange.run();
+        try {
+            while (true) {
+                boolean relevant = drain(service.take());
+                WatchKey more;
+                while ((more = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant |= drain(more);
+                }
+                if (relevant) {
+                    onChange.run();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // наблюдение закрыто
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // OVERFLOW — события потеряны, проверить нужно в любом случае
+            relevant |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || fileNames.contains(event.context().toString());
+        }
+        key.reset();
+        return relevant;
+    }
+}
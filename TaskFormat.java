@@ -0,0 +1,341 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+// Текстовые форматы импорта и экспорта: JSON Lines (одна задача — один объект
+// в строке) и CSV с заголовком. Поля: id, title, description, tag, deadline
+// (yyyy-MM-dd или пусто), completed, createdAt (yyyy-MM-ddTHH:mm:ss).
+// При импорте id из файла не используется — задачи получают новые id.
+enum TaskFormat {
+    JSONL {
+        @Override
+        String header() {
+            return null;
+        }
+
+        @Override
+        void append(StringBuilder out, Task task) {
+            out.append("{\"id\":").append(task.getId());
+            out.append(",\"title\":");
+            appendJsonString(out, task.getTitle());
+            out.append(",\"description\":");
+            appendJsonString(out, task.getDescription());
+            out.append(",\"tag\":");
+            appendJsonString(out, task.getTag());
+            out.append(",\"deadline\":");
+            appendJsonString(out, task.hasDeadline() ? LocalDate.ofEpochDay(task.getDeadlineDay()).toString() : null);
+            out.append(",\"completed\":").append(task.isCompleted());
+            out.append(",\"createdAt\":");
+            appendJsonString(out, task.getCreatedAt().toString());
+            out.append("}\n");
+        }
+
+        @Override
+        String readRecord(BufferedReader in) throws IOException {
+            String line;
+            do {
+                line = in.readLine();
+            } while (line != null && line.isBlank());
+            return line;
+        }
+
+        @Override
+        Task parse(String record, int id) {
+            String[] fields = new String[FIELDS.length];
+            new JsonObjectParser(record).parseInto(fields);
+            return toTask(fields, id);
+        }
+    },
+
+    CSV {
+        @Override
+        String header() {
+            return String.join(",", FIELDS) + "\n";
+        }
+
+        @Override
+        void append(StringBuilder out, Task task) {
+            out.append(task.getId()).append(',');
+            appendCsvField(out, task.getTitle());
+            out.append(',');
+            appendCsvField(out, task.getDescription());
+            out.append(',');
+            appendCsvField(out, task.getTag());
+            out.append(',');
+            if (task.hasDeadline()) {
+                out.append(LocalDate.ofEpochDay(task.getDeadlineDay()));
+            }
+            out.append(',').append(task.isCompleted()).append(',').append(task.getCreatedAt()).append('\n');
+        }
+
+        // Поле в кавычках может содержать перевод строки, поэтому запись
+        // продолжается, пока число кавычек нечётное.
+        @Override
+        String readRecord(BufferedReader in) throws IOException {
+            String line = in.readLine();
+            if (line == null) {
+                return null;
+            }
+            StringBuilder record = null;
+            int quotes = countQuotes(line);
+            while (quotes % 2 != 0) {
+                String next = in.readLine();
+                if (next == null) {
+                    break;
+                }
+                if (record == null) {
+                    record = new StringBuilder(line);
+                }
+                record.append('\n').append(next);
+                quotes += countQuotes(next);
+            }
+            return record == null ? line : record.toString();
+        }
+
+        @Override
+        Task parse(String record, int id) {
+            List<String> values = new ArrayList<>(FIELDS.length);
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            values.add(field.toString());
+            if (values.size() > FIELDS.length) {
+                throw new IllegalArgumentException("лишние поля");
+            }
+            String[] fields = new String[FIELDS.length];
+            for (int i = 0; i < values.size(); i++) {
+                fields[i] = values.get(i).isEmpty() ? null : values.get(i);
+            }
+            return toTask(fields, id);
+        }
+    };
+
+    static final String[] FIELDS = {"id", "title", "description", "tag", "deadline", "completed", "createdAt"};
+
+    // Заголовок файла или null, если его нет.
+    abstract String header();
+
+    abstract void append(StringBuilder out, Task task);
+
+    // Следующая запись или null в конце файла.
+    abstract String readRecord(BufferedReader in) throws IOException;
+
+    // Бросает IllegalArgumentException, если запись не разбирается.
+    abstract Task parse(String record, int id);
+
+    static TaskFormat forFileName(String name) {
+        return name.toLowerCase().endsWith(".csv") ? CSV : JSONL;
+    }
+
+    private static Task toTask(String[] fields, int id) {
+        String title = fields[1];
+        if (title == null || title.isBlank()) {
+            throw new IllegalArgumentException("нет заголовка");
+        }
+        try {
+            int deadlineDay = fields[4] == null ? Task.NO_DEADLINE : (int) LocalDate.parse(fields[4]).toEpochDay();
+            boolean completed = Boolean.parseBoolean(fields[5]);
+            LocalDateTime createdAt = fields[6] == null ? LocalDateTime.now() : LocalDateTime.parse(fields[6]);
+            String description = fields[2] == null ? "" : fields[2];
+            String tag = fields[3] == null ? "" : fields[3];
+            return new Task(id, title, description, tag, deadlineDay, completed, createdAt);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("неверная дата: " + e.getParsedString());
+        }
+    }
+
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void appendCsvField(StringBuilder out, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static void appendJsonString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    // Разбор плоского JSON-объекта: значения — строки, числа, true/false/null.
+    // Неизвестные поля пропускаются.
+    private static final class JsonObjectParser {
+        private final String text;
+        private int pos;
+
+        JsonObjectParser(String text) {
+            this.text = text;
+        }
+
+        void parseInto(String[] fields) {
+            expect('{');
+            skipSpaces();
+            if (peek() == '}') {
+                pos++;
+                return;
+            }
+            while (true) {
+                skipSpaces();
+                String key = readString();
+                expect(':');
+                String value = readValue();
+                for (int i = 0; i < FIELDS.length; i++) {
+                    if (FIELDS[i].equals(key)) {
+                        fields[i] = value;
+                    }
+                }
+                skipSpaces();
+                char c = next();
+                if (c == '}') {
+                    return;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("ожидалась ',' в позиции " + (pos - 1));
+                }
+            }
+        }
+
+        private String readValue() {
+            skipSpaces();
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            int start = pos;
+            while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("нет значения в позиции " + start);
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                char escaped = next();
+                switch (escaped) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw new IllegalArgumentException("обрезанная \\u-последовательность");
+                        }
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(escaped);
+                }
+            }
+        }
+
+        private void expect(char expected) {
+            skipSpaces();
+            if (next() != expected) {
+                throw new IllegalArgumentException("ожидался '" + expected + "' в позиции " + (pos - 1));
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("неожиданный конец строки");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
@@ -0,0 +1,704 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Снимок задач (tasks.dat) + журнал изменений (tasks.log).
+// Каждое изменение дописывается в журнал короткой записью, а фоновое
+// уплотнение время от времени сворачивает журнал в новый снимок.
+//
+// С файлами могут работать несколько процессов: два окна или окно и TaskCli.
+// Загрузка, запись и замена снимка идут под FileLock на tasks.lock, и перед
+// каждой записью процесс дочитывает чужие записи журнала. Номера записей
+// сквозные, поэтому пропуск номера или снимок новее прочитанного значат, что
+// файлы переписал кто-то другой, и тогда состояние перечитывается целиком.
+// Id задач, изменённых другими процессами, копятся до takeExternalChanges.
+class TaskJournal implements Closeable {
+    static final byte OP_ADD = 1;
+    static final byte OP_UPDATE = 2;
+    static final byte OP_REMOVE = 3;
+    // несколько изменений под одной контрольной суммой: после сбоя остаются все или ни одного
+    static final byte OP_BATCH = 4;
+    // резерв id: поднимает nextId, чтобы два процесса не выдали один и тот же id
+    static final byte OP_RESERVE = 5;
+
+    private static final int COMPACT_THRESHOLD = 1000;
+
+    interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    static class Entry {
+        final byte op;
+        final int id;
+        final Task task;
+        final List<Entry> batch;
+
+        Entry(byte op, int id, Task task) {
+            this.op = op;
+            this.id = id;
+            this.task = task;
+            this.batch = null;
+        }
+
+        Entry(List<Entry> batch) {
+            this.op = OP_BATCH;
+            this.id = batch.size();
+            this.task = null;
+            this.batch = batch;
+        }
+    }
+
+    private final File snapshotFile;
+    private final File logFile;
+    private final File rotatedLogFile;
+    private final File lockFile;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "task-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Состояние, которое уже записано на диск, по id задачи. Задачи в нём
+    // не изменяются, поэтому снимку достаточно собрать ссылки на них.
+    // Меняется под монитором журнала и stateLock; поток модели читает его
+    // через getStored только под stateLock и не ждёт блокировку файлов.
+    private IntHashMap<Task> persisted = new IntHashMap<>();
+    private final Object stateLock = new Object();
+    private final BitSet externalChanges = new BitSet();
+    private volatile Runnable externalChangeListener;
+
+    // Байт 0 файла tasks.lock — загрузка и запись, байт 1 — уплотнение (одно
+    // на все процессы). processLock делает блокировку повторно входимой внутри процесса.
+    private final ReentrantLock processLock = new ReentrantLock();
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private FileLock compactionLock;
+
+    private FileChannel log;
+    private Object logIdentity;
+    // до этого места журнал уже прочитан или записан этим процессом
+    private long logPosition;
+    private long sequence;
+    private int nextId = 1;
+    private int recordsSinceSnapshot;
+    private Future<?> pendingCompaction;
+    private boolean loaded;
+    private boolean gap;
+
+    TaskJournal(File snapshotFile, File logFile) {
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        this.rotatedLogFile = new File(logFile.getPath() + ".old");
+        this.lockFile = new File(snapshotFile.getPath() + ".lock");
+    }
+
+    // Загружает снимок и проигрывает поверх него журнал.
+    // Оборванная последняя запись (падение во время записи) отбрасывается.
+    // Возвращённые задачи менять нельзя: это и есть состояние журнала.
+    // Снимок в старом формате Java-сериализации сразу переписывается в новом.
+    synchronized List<Task> load() throws IOException {
+        lockFiles();
+        try {
+            boolean legacy = TaskCodec.isJavaSerialized(snapshotFile);
+            readState(false);
+            if (legacy && tryLockCompaction()) {
+                try {
+                    writeSnapshot(sortedById(), rotate(), nextId);
+                } finally {
+                    unlockCompaction();
+                }
+            }
+            loaded = true;
+        } finally {
+            unlockFiles();
+        }
+        // сами записанные задачи, без копий: модель переносит их поля в свою таблицу
+        return sortedById();
+    }
+
+    // Забывает загруженные задачи, например после разового свёртывания журнала в TaskCli.
+    synchronized void unload() throws IOException {
+        loaded = false;
+        synchronized (stateLock) {
+            persisted = new IntHashMap<>();
+            externalChanges.clear();
+        }
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    // Следующий свободный id. Id не переиспользуются, даже если задачу с наибольшим id удалили.
+    synchronized int getNextId() {
+        return nextId;
+    }
+
+    // Есть ли изменения, ещё не свёрнутые в снимок. Пока их нет, снимок можно читать напрямую.
+    synchronized boolean hasPendingLog() {
+        return logFile.length() > 0 || rotatedLogFile.exists();
+    }
+
+    // Вызывается в любом потоке, когда в externalChanges появились новые id.
+    void setExternalChangeListener(Runnable listener) {
+        externalChangeListener = listener;
+    }
+
+    // Id задач, изменённых другими процессами с прошлого вызова, по возрастанию.
+    int[] takeExternalChanges() {
+        synchronized (stateLock) {
+            int[] ids = externalChanges.stream().toArray();
+            externalChanges.clear();
+            return ids;
+        }
+    }
+
+    // Копия задачи в том виде, в каком она записана на диск, или null.
+    Task getStored(int id) {
+        synchronized (stateLock) {
+            Task task = persisted.get(id);
+            return task == null ? null : task.copy();
+        }
+    }
+
+    // Дочитывает изменения других процессов; вызывается, когда файлы поменялись.
+    synchronized void refresh() throws IOException {
+        if (!loaded) {
+            return;
+        }
+        lockFiles();
+        try {
+            catchUp();
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    // Резервирует count id подряд и возвращает первый из них.
+    synchronized int reserveIds(int count) throws IOException {
+        lockFiles();
+        try {
+            catchUp();
+            int first = nextId;
+            append(List.of(new Entry(OP_RESERVE, first + count, null)));
+            return first;
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    // Выполняет action под блокировкой файлов, например замену снимка при импорте.
+    synchronized <T> T withLock(LockedAction<T> action) throws IOException {
+        lockFiles();
+        try {
+            return action.run();
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    // Пишет пачку изменений одной записью в файл. Если запись не удалась,
+    // журнал обрезается до прежней длины, и пачку можно повторить целиком.
+    synchronized void append(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        requireLoaded();
+        lockFiles();
+        try {
+            catchUp();
+            appendLocked(entries);
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    private void appendLocked(List<Entry> entries) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(128 * entries.size());
+        DataOutputStream out = new DataOutputStream(buffer);
+        long next = sequence;
+        for (Entry entry : entries) {
+            ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(128);
+            DataOutputStream payload = new DataOutputStream(recordBuffer);
+            payload.writeLong(++next);
+            if (entry.op == OP_BATCH) {
+                payload.writeByte(OP_BATCH);
+                payload.writeInt(entry.batch.size());
+                for (Entry change : entry.batch) {
+                    writeChange(payload, change);
+                }
+            } else {
+                writeChange(payload, entry);
+            }
+            byte[] bytes = recordBuffer.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            out.writeInt(bytes.length);
+            out.writeInt((int) crc.getValue());
+            out.write(bytes);
+        }
+
+        if (log == null) {
+            openLog();
+        }
+        long position = log.size();
+        long offset = position;
+        try {
+            ByteBuffer data = ByteBuffer.wrap(buffer.toByteArray());
+            while (data.hasRemaining()) {
+                offset += log.write(data, offset);
+            }
+            TaskMetrics.INSTANCE.bytesWritten(offset - position);
+        } catch (IOException e) {
+            try {
+                log.truncate(position);
+            } catch (IOException ignored) {
+            }
+            throw e;
+        }
+
+        logPosition = offset;
+        sequence = next;
+        for (Entry entry : entries) {
+            if (entry.op == OP_BATCH) {
+                for (Entry change : entry.batch) {
+                    apply(persisted, change.op, change.id, change.task, null);
+                }
+                recordsSinceSnapshot += entry.batch.size();
+            } else {
+                apply(persisted, entry.op, entry.id, entry.task, null);
+                recordsSinceSnapshot++;
+            }
+        }
+    }
+
+    private static void writeChange(DataOutputStream payload, Entry entry) throws IOException {
+        payload.writeByte(entry.op);
+        payload.writeInt(entry.id);
+        if (entry.op != OP_REMOVE && entry.op != OP_RESERVE) {
+            TaskCodec.writeTask(payload, entry.task, null);
+        }
+    }
+
+    // Если журнал вырос, переключается на новый файл журнала и в фоне пишет снимок.
+    // Пока уплотняет другой процесс, ничего не делает.
+    synchronized void maybeCompact() throws IOException {
+        if (!loaded || recordsSinceSnapshot < COMPACT_THRESHOLD) {
+            return;
+        }
+        if (pendingCompaction != null && !pendingCompaction.isDone()) {
+            return;
+        }
+        lockFiles();
+        try {
+            if (!tryLockCompaction()) {
+                return;
+            }
+            boolean submitted = false;
+            try {
+                catchUp();
+                List<Task> snapshot = sortedById();
+                long snapshotSequence = rotate();
+                int snapshotNextId = nextId;
+                pendingCompaction = compactor.submit(() -> {
+                    try {
+                        writeSnapshot(snapshot, snapshotSequence, snapshotNextId);
+                    } catch (IOException e) {
+                        // журнал остался в tasks.log.old и будет проигран при следующей загрузке
+                        TaskMetrics.INSTANCE.saveFailed();
+                    } finally {
+                        unlockCompaction();
+                    }
+                });
+                submitted = true;
+            } finally {
+                if (!submitted) {
+                    unlockCompaction();
+                }
+            }
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    // Сворачивает журнал в снимок. Возвращает false, если сейчас уплотняет
+    // другой процесс: тогда журнал свернёт он.
+    synchronized boolean fold() throws IOException {
+        requireLoaded();
+        awaitCompaction();
+        lockFiles();
+        try {
+            catchUp();
+            if (recordsSinceSnapshot == 0 && logFile.length() == 0 && !rotatedLogFile.exists()) {
+                return true;
+            }
+            if (!tryLockCompaction()) {
+                return false;
+            }
+            try {
+                writeSnapshot(sortedById(), rotate(), nextId);
+            } finally {
+                unlockCompaction();
+            }
+            return true;
+        } finally {
+            unlockFiles();
+        }
+    }
+
+    // Дожидается фонового уплотнения, сворачивает остаток журнала в снимок и закрывает файлы.
+    @Override
+    public synchronized void close() throws IOException {
+        awaitCompaction();
+        compactor.shutdown();
+        try {
+            if (loaded) {
+                fold();
+            }
+        } finally {
+            loaded = false;
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+                lockChannel = null;
+            }
+        }
+    }
+
+    // Без загруженного состояния запись в журнал или новый снимок затёрли бы задачи на диске.
+    private void requireLoaded() throws IOException {
+        if (!loaded) {
+            throw new IOException("Задачи не загружены, файл задач не изменяется: " + snapshotFile);
+        }
+    }
+
+    private void awaitCompaction() {
+        if (pendingCompaction != null) {
+            try {
+                pendingCompaction.get();
+            } catch (Exception e) {
+            }
+            pendingCompaction = null;
+        }
+    }
+
+    private void lockFiles() throws IOException {
+        processLock.lock();
+        if (processLock.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            if (lockChannel == null) {
+                lockChannel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            fileLock = lockChannel.lock(0, 1, false);
+        } catch (IOException | RuntimeException e) {
+            processLock.unlock();
+            throw e;
+        }
+    }
+
+    private void unlockFiles() {
+        if (processLock.getHoldCount() == 1) {
+            try {
+                fileLock.release();
+            } catch (IOException ignored) {
+            }
+            fileLock = null;
+        }
+        processLock.unlock();
+    }
+
+    // Вызывается под lockFiles.
+    private boolean tryLockCompaction() throws IOException {
+        compactionLock = lockChannel.tryLock(1, 1, false);
+        return compactionLock != null;
+    }
+
+    private void unlockCompaction() {
+        try {
+            compactionLock.release();
+        } catch (IOException ignored) {
+        }
+        compactionLock = null;
+    }
+
+    // Дочитывает чужие записи: остаток своего файла журнала, затем новый файл,
+    // если журнал тем временем повернул другой процесс. Вызывается под lockFiles.
+    private void catchUp() throws IOException {
+        if (!loaded) {
+            return;
+        }
+        BitSet changed = new BitSet();
+        gap = false;
+        // log == null — прошлый файл закрыт, а новый не открылся
+        long valid = log == null ? 0 : replay(log, logPosition, persisted, changed);
+        boolean current = log != null && isCurrentLog();
+        if (!gap && current && log.size() > valid) {
+            // оборванная запись упавшего процесса
+            log.truncate(valid);
+        }
+        logPosition = valid;
+        if (!gap && !current) {
+            openLog();
+            logPosition = replay(log, 0, persisted, changed);
+            if (!gap && log.size() > logPosition) {
+                log.truncate(logPosition);
+            }
+        }
+        if (!gap && TaskCodec.readHeader(snapshotFile).sequence > sequence) {
+            gap = true;
+        }
+        synchronized (stateLock) {
+            externalChanges.or(changed);
+        }
+        if (gap) {
+            readState(true);
+        }
+        Runnable listener = externalChangeListener;
+        if (listener != null && (gap || !changed.isEmpty())) {
+            listener.run();
+        }
+    }
+
+    // Читает снимок и оба журнала заново. С report id задач, которые
+    // отличаются от прежнего состояния, добавляются в externalChanges.
+    private void readState(boolean report) throws IOException {
+        List<Task> snapshot = new ArrayList<>();
+        TaskCodec.Header header = TaskCodec.read(snapshotFile, snapshot);
+        IntHashMap<Task> state = new IntHashMap<>(snapshot.size());
+        nextId = Math.max(nextId, header.nextId);
+        for (Task task : snapshot) {
+            apply(state, OP_ADD, task.getId(), task, null);
+        }
+        sequence = header.sequence;
+        if (rotatedLogFile.exists()) {
+            try (FileChannel rotated = FileChannel.open(rotatedLogFile.toPath(), StandardOpenOption.READ)) {
+                replay(rotated, 0, state, null);
+            }
+        }
+        openLog();
+        logPosition = replay(log, 0, state, null);
+        if (log.size() > logPosition) {
+            log.truncate(logPosition);
+        }
+        gap = false;
+        synchronized (stateLock) {
+            if (report) {
+                persisted.forEachValue(task -> {
+                    Task now = state.get(task.getId());
+                    if (now == null || !now.sameContent(task)) {
+                        externalChanges.set(task.getId());
+                    }
+                });
+                IntHashMap<Task> previous = persisted;
+                state.forEachValue(task -> {
+                    if (previous.get(task.getId()) == null) {
+                        externalChanges.set(task.getId());
+                    }
+                });
+            } else {
+                externalChanges.clear();
+            }
+            persisted = state;
+        }
+    }
+
+    private long rotate() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        if (logFile.exists()) {
+            if (rotatedLogFile.exists()) {
+                // прошлый снимок не записался (сбой или падение процесса), и в tasks.log.old
+                // ещё лежат нужные записи: журнал дописывается к ним, а не заменяет их
+                appendRotated();
+                Files.delete(logFile.toPath());
+            } else {
+                Files.move(logFile.toPath(), rotatedLogFile.toPath());
+            }
+        }
+        openLog();
+        logPosition = 0;
+        recordsSinceSnapshot = 0;
+        return sequence;
+    }
+
+    private void appendRotated() throws IOException {
+        try (FileChannel current = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+             FileChannel rotated = FileChannel.open(rotatedLogFile.toPath(), StandardOpenOption.WRITE,
+                     StandardOpenOption.APPEND)) {
+            long size = current.size();
+            long position = 0;
+            while (position < size) {
+                position += current.transferTo(position, size - position, rotated);
+            }
+            rotated.force(false);
+        }
+    }
+
+    // Файл пишется без блокировки, а заменяет снимок под ней. Если снимок тем
+    // временем заменил другой процесс (импорт), и тот новее, этот не нужен.
+    private void writeSnapshot(List<Task> tasks, long snapshotSequence, int snapshotNextId) throws IOException {
+        long start = System.nanoTime();
+        File tmp = new File(snapshotFile.getPath() + ".tmp");
+        TaskCodec.write(tmp, tasks, snapshotSequence, snapshotNextId);
+        TaskMetrics.INSTANCE.bytesWritten(tmp.length());
+        lockFiles();
+        try {
+            if (TaskCodec.readHeader(snapshotFile).sequence > snapshotSequence) {
+                Files.delete(tmp.toPath());
+            } else {
+                Files.move(tmp.toPath(), snapshotFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            Files.deleteIfExists(rotatedLogFile.toPath());
+        } finally {
+            unlockFiles();
+        }
+        TaskMetrics.INSTANCE.snapshot.recordSince(start);
+    }
+
+    // Проигрывает записи с позиции from и возвращает конец последней целой записи.
+    // Записи не новее sequence пропускаются. При дочитывании (changed != null)
+    // пропуск номера отмечается в gap и останавливает проигрывание.
+    private long replay(FileChannel channel, long from, IntHashMap<Task> target, BitSet changed) throws IOException {
+        long valid = from;
+        long fileLength = channel.size();
+        channel.position(from);
+        // поток не закрывается: он закрыл бы и канал
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        while (true) {
+            byte[] bytes;
+            int expectedCrc;
+            try {
+                int length = in.readInt();
+                expectedCrc = in.readInt();
+                // пакетная запись может быть большой, но не длиннее остатка файла
+                if (length <= 0 || length > fileLength - valid - 8) {
+                    break;
+                }
+                bytes = new byte[length];
+                in.readFully(bytes);
+            } catch (EOFException e) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.wrap(bytes);
+            long recordSequence = payload.getLong();
+            if (recordSequence > sequence) {
+                if (changed != null && recordSequence != sequence + 1) {
+                    gap = true;
+                    break;
+                }
+                byte op = payload.get();
+                if (op == OP_BATCH) {
+                    int count = payload.getInt();
+                    for (int i = 0; i < count; i++) {
+                        applyChange(payload.get(), payload, target, changed);
+                    }
+                } else {
+                    applyChange(op, payload, target, changed);
+                }
+                sequence = recordSequence;
+                if (changed != null) {
+                    recordsSinceSnapshot++;
+                }
+            }
+            valid += 8 + bytes.length;
+        }
+        return valid;
+    }
+
+    private void applyChange(byte op, ByteBuffer payload, IntHashMap<Task> target, BitSet changed) {
+        int id = payload.getInt();
+        boolean hasTask = op != OP_REMOVE && op != OP_RESERVE;
+        apply(target, op, id, hasTask ? TaskCodec.readTask(payload) : null, changed);
+    }
+
+    private void apply(IntHashMap<Task> target, byte op, int id, Task task, BitSet changed) {
+        synchronized (stateLock) {
+            switch (op) {
+                case OP_ADD:
+                case OP_UPDATE:
+                    target.put(id, task);
+                    nextId = Math.max(nextId, id + 1);
+                    break;
+                case OP_REMOVE:
+                    target.remove(id);
+                    break;
+                case OP_RESERVE:
+                    nextId = Math.max(nextId, id);
+                    return;
+                default:
+                    throw new IllegalStateException("Неизвестная операция журнала: " + op);
+            }
+        }
+        if (changed != null) {
+            changed.set(id);
+        }
+    }
+
+    private void openLog() throws IOException {
+        if (log != null) {
+            // если новый файл не откроется, следующая запись попробует снова
+            FileChannel old = log;
+            log = null;
+            old.close();
+        }
+        log = FileChannel.open(logFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        logIdentity = identity(logFile);
+    }
+
+    // Тот же ли файл лежит под именем tasks.log, что открыт у нас. Там, где у файлов
+    // нет fileKey (Windows), новый файл журнала отличается временем создания и размером.
+    private boolean isCurrentLog() throws IOException {
+        Object current = identity(logFile);
+        if (current == null || !current.equals(logIdentity)) {
+            return false;
+        }
+        return !(current instanceof FileTime) || logFile.length() == log.size();
+    }
+
+    private static Object identity(File file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Порядок показа совпадает с порядком создания, то есть с порядком id.
+    private List<Task> sortedById() {
+        List<Task> tasks = new ArrayList<>(persisted.size());
+        persisted.forEachValue(tasks::add);
+        tasks.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return tasks;
+    }
+}
@@ -0,0 +1,272 @@
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Модель списка задач. Каждое изменение сообщает JList только о затронутых
+// строках, а слушатели (например, TaskSaver) получают то же изменение для записи.
+//
+// Id задачи постоянный и выдаётся из счётчика, который хранится вместе с задачами;
+// позиция в списке — только порядок показа. Поиск по id — через хеш-индекс TaskTable.
+//
+// Задачи лежат в TaskTable столбцами, а Task по строке собирается при обращении.
+// Объекты последних RECENT запрошенных строк переиспользуются, поэтому
+// перерисовка видимых строк ничего не выделяет и текст строки не строится заново.
+// Задачи из getElementAt менять нельзя: изменения идут через update и updateAll.
+//
+// updateAll даёт JList одно событие, removeAll — по событию на отрезок подряд
+// идущих строк; слушатели получают изменения задач между batchStarted и batchFinished.
+class TaskListModel extends AbstractListModel<Task> implements Iterable<Task> {
+    interface Listener {
+        void taskAdded(int index, Task task);
+
+        // Задача ещё в прежнем виде, сразу перед изменением; сохранять объект нельзя.
+        default void taskUpdating(int index, Task task) {
+        }
+
+        void taskUpdated(int index, Task task);
+
+        void taskRemoved(int index, Task task);
+
+        default void batchStarted() {
+        }
+
+        default void batchFinished() {
+        }
+    }
+
+    private static final int RECENT = 256;
+
+    private final TaskTable table;
+    // задача по номеру строки mod RECENT; читается и из других потоков под блокировкой чтения
+    private final AtomicReferenceArray<Task> recent = new AtomicReferenceArray<>(RECENT);
+    private final List<Listener> listeners = new ArrayList<>();
+    private int nextId;
+
+    // Задачи по возрастанию id; модель копирует их поля и сами объекты не держит.
+    TaskListModel(List<Task> tasks, int nextId) {
+        this.table = new TaskTable(tasks.size());
+        table.addAll(tasks);
+        if (!tasks.isEmpty()) {
+            nextId = Math.max(nextId, tasks.get(tasks.size() - 1).getId() + 1);
+        }
+        this.nextId = nextId;
+    }
+
+    void addTaskListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public int getSize() {
+        return table.size();
+    }
+
+    @Override
+    public Task getElementAt(int index) {
+        int slot = index & (RECENT - 1);
+        Task task = recent.get(slot);
+        if (task == null || task.getId() != table.id(index)) {
+            task = table.get(index);
+            recent.set(slot, task);
+        }
+        return task;
+    }
+
+    // Отдельный объект задачи строки index, не из числа переиспользуемых:
+    // для проходов по всему списку, которые не должны вытеснять видимые строки.
+    Task taskAt(int index) {
+        return table.get(index);
+    }
+
+    int idAt(int index) {
+        return table.id(index);
+    }
+
+    // Поля строки прямо из столбцов, без объекта задачи: для проходов по всему списку.
+    boolean isCompletedAt(int index) {
+        return table.isCompleted(index);
+    }
+
+    long completedAtMillisAt(int index) {
+        return table.completedAt(index);
+    }
+
+    // Обходит задачи, не трогая объекты видимых строк.
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < table.size();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return table.get(next++);
+            }
+        };
+    }
+
+    // Порция задач, прочитанных с диска при запуске. Это не изменение:
+    // JList получает одно событие на порцию, слушатели — ничего.
+    void appendLoaded(List<Task> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int first = table.size();
+        table.addAll(chunk);
+        nextId = Math.max(nextId, chunk.get(chunk.size() - 1).getId() + 1);
+        fireIntervalAdded(this, first, table.size() - 1);
+    }
+
+    // Id ниже nextId уже были выданы (возможно, удалённым задачам).
+    void reserveIdsBelow(int nextId) {
+        this.nextId = Math.max(this.nextId, nextId);
+    }
+
+    Task getById(int id) {
+        int index = indexOf(id);
+        return index < 0 ? null : getElementAt(index);
+    }
+
+    // Список упорядочен по id: новые задачи получают id больше всех прежних
+    // и идут в конец, а задачи других процессов вставляются на место по id.
+    int indexOf(int id) {
+        return table.indexOf(id);
+    }
+
+    // Индекс первой задачи с id больше данного или размер списка.
+    int indexAfter(int id) {
+        return table.indexAfter(id);
+    }
+
+    int allocateId() {
+        return nextId++;
+    }
+
+    void add(Task task) {
+        addAt(table.size(), task);
+    }
+
+    // Ставит задачу на её место по id, например задачу, добавленную другим процессом.
+    void insert(Task task) {
+        addAt(indexAfter(task.getId()), task);
+    }
+
+    // Объект task становится задачей этой строки: после вставки его можно читать,
+    // но менять — только через update.
+    private void addAt(int index, Task task) {
+        table.insert(index, task);
+        forgetRecent();
+        recent.set(index & (RECENT - 1), task);
+        nextId = Math.max(nextId, task.getId() + 1);
+        fireIntervalAdded(this, index, index);
+        for (Listener listener : listeners) {
+            listener.taskAdded(index, task);
+        }
+    }
+
+    // Меняет задачу строки index; перерисовывается только её строка.
+    void update(int index, Consumer<Task> change) {
+        Task task = getElementAt(index);
+        for (Listener listener : listeners) {
+            listener.taskUpdating(index, task);
+        }
+        change.accept(task);
+        table.set(index, task);
+        fireContentsChanged(this, index, index);
+        for (Listener listener : listeners) {
+            listener.taskUpdated(index, task);
+        }
+    }
+
+    // Меняет задачи строк indexes (по возрастанию) одним событием.
+    void updateAll(int[] indexes, Consumer<Task> change) {
+        if (indexes.length == 0) {
+            return;
+        }
+        Task[] changed = new Task[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            changed[i] = getElementAt(indexes[i]);
+            for (Listener listener : listeners) {
+                listener.taskUpdating(indexes[i], changed[i]);
+            }
+            change.accept(changed[i]);
+            table.set(indexes[i], changed[i]);
+        }
+        fireContentsChanged(this, indexes[0], indexes[indexes.length - 1]);
+        for (Listener listener : listeners) {
+            listener.batchStarted();
+            for (int i = 0; i < indexes.length; i++) {
+                listener.taskUpdated(indexes[i], changed[i]);
+            }
+            listener.batchFinished();
+        }
+    }
+
+    // Удаляет задачи за один проход по списку. indexes отсортированы по возрастанию;
+    // слушатели получают позиции до удаления.
+    List<Task> removeAll(int[] indexes) {
+        List<Task> removed = new ArrayList<>(indexes.length);
+        if (indexes.length == 0) {
+            return removed;
+        }
+        for (int index : indexes) {
+            removed.add(table.get(index));
+        }
+        table.removeAll(indexes);
+        forgetRecent();
+        fireRemovedRuns(indexes);
+        for (Listener listener : listeners) {
+            listener.batchStarted();
+            for (int i = 0; i < indexes.length; i++) {
+                listener.taskRemoved(indexes[i], removed.get(i));
+            }
+            listener.batchFinished();
+        }
+        return removed;
+    }
+
+    Task remove(int index) {
+        Task removed = table.get(index);
+        table.remove(index);
+        forgetRecent();
+        fireIntervalRemoved(this, index, index);
+        for (Listener listener : listeners) {
+            listener.taskRemoved(index, removed);
+        }
+        return removed;
+    }
+
+    // По событию на каждый отрезок подряд идущих строк, начиная с последнего:
+    // так номера ещё не удалённых отрезков остаются верными, и выделение
+    // JList сдвигается вместе со строками, а не остаётся на чужих задачах.
+    // rows отсортированы по возрастанию и даны в номерах до удаления.
+    private void fireRemovedRuns(int[] rows) {
+        int end = rows.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && rows[start - 1] == rows[start] - 1) {
+                start--;
+            }
+            fireIntervalRemoved(this, rows[start], rows[end]);
+            end = start - 1;
+        }
+    }
+
+    // Строки сдвинулись: объекты задач надо собирать заново.
+    private void forgetRecent() {
+        for (int i = 0; i < RECENT; i++) {
+            recent.set(i, null);
+        }
+    }
+}
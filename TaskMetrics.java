@@ -0,0 +1,212 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Счётчики и гистограммы задержек приложения. Один экземпляр на процесс;
+// окно публикует его через JMX, консольный TaskCli — нет (JMX заметно замедляет запуск).
+class TaskMetrics implements TaskMetricsMBean {
+    static final TaskMetrics INSTANCE = new TaskMetrics();
+
+    private static final int RECENT_STALLS = 20;
+
+    final LatencyHistogram load = new LatencyHistogram("load");
+    final LatencyHistogram save = new LatencyHistogram("save");
+    final LatencyHistogram snapshot = new LatencyHistogram("snapshot");
+    final LatencyHistogram rebuild = new LatencyHistogram("rebuild");
+    final LatencyHistogram render = new LatencyHistogram("render");
+    final LatencyHistogram edt = new LatencyHistogram("edt");
+    private final LatencyHistogram[] histograms = {load, save, snapshot, rebuild, render, edt};
+
+    private final AtomicLong tasksLoaded = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+    private final AtomicLong failedSaves = new AtomicLong();
+    private final AtomicLong edtStalls = new AtomicLong();
+    private volatile long edtStallThresholdMillis;
+    private volatile long firstPaintMillis = -1;
+    private volatile long fullyLoadedMillis = -1;
+    // число записей по секундам за последнюю минуту
+    private final long[] savesBySecond = new long[60];
+    private final long[] secondOfSlot = new long[60];
+    private final Deque<String> recentStalls = new ArrayDeque<>();
+    private volatile TaskSaver saver;
+
+    private TaskMetrics() {
+    }
+
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("PinkTodo:type=Metrics"));
+        } catch (JMException e) {
+            // уже зарегистрирован или JMX недоступен — метрики всё равно копятся
+        }
+    }
+
+    void tasksLoaded(int count) {
+        tasksLoaded.addAndGet(count);
+    }
+
+    void bytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    synchronized void saved(long startNanos) {
+        save.recordSince(startNanos);
+        saves.incrementAndGet();
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % savesBySecond.length);
+        if (secondOfSlot[slot] != second) {
+            secondOfSlot[slot] = second;
+            savesBySecond[slot] = 0;
+        }
+        savesBySecond[slot]++;
+    }
+
+    void saveFailed() {
+        failedSaves.incrementAndGet();
+    }
+
+    // Отставание и ошибки записи берутся у этого TaskSaver.
+    void watchSaver(TaskSaver saver) {
+        this.saver = saver;
+    }
+
+    // Отсчёт от запуска JVM: так время включает и старт самой Java.
+    void firstPaint() {
+        if (firstPaintMillis < 0) {
+            firstPaintMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        }
+    }
+
+    void fullyLoaded() {
+        if (fullyLoadedMillis < 0) {
+            fullyLoadedMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        }
+    }
+
+    void setEdtStallThresholdMillis(long millis) {
+        edtStallThresholdMillis = millis;
+    }
+
+    synchronized void edtStalled(long millis, StackTraceElement[] stack) {
+        edtStalls.incrementAndGet();
+        StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.now().withNano(0)).append(" EDT занят дольше ").append(millis).append(" мс");
+        for (StackTraceElement element : stack) {
+            sb.append("\n\tat ").append(element);
+        }
+        if (recentStalls.size() == RECENT_STALLS) {
+            recentStalls.removeFirst();
+        }
+        recentStalls.addLast(sb.toString());
+    }
+
+    @Override
+    public long getTasksLoaded() {
+        return tasksLoaded.get();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    @Override
+    public long getSaves() {
+        return saves.get();
+    }
+
+    @Override
+    public synchronized double getSavesPerMinute() {
+        long now = System.currentTimeMillis() / 1000;
+        long total = 0;
+        for (int i = 0; i < savesBySecond.length; i++) {
+            if (now - secondOfSlot[i] < savesBySecond.length) {
+                total += savesBySecond[i];
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long getFailedSaves() {
+        return failedSaves.get();
+    }
+
+    @Override
+    public long getSaveLagMillis() {
+        TaskSaver current = saver;
+        return current == null ? 0 : current.getSaveLagMillis();
+    }
+
+    @Override
+    public String getSaveFailure() {
+        TaskSaver current = saver;
+        IOException failure = current == null ? null : current.getFailure();
+        return failure == null ? "" : failure.toString();
+    }
+
+    @Override
+    public long getEdtStalls() {
+        return edtStalls.get();
+    }
+
+    @Override
+    public long getEdtStallThresholdMillis() {
+        return edtStallThresholdMillis;
+    }
+
+    @Override
+    public long getTimeToFirstPaintMillis() {
+        return firstPaintMillis;
+    }
+
+    @Override
+    public long getTimeToFullyLoadedMillis() {
+        return fullyLoadedMillis;
+    }
+
+    @Override
+    public String[] getLatencies() {
+        String[] lines = new String[histograms.length];
+        for (int i = 0; i < histograms.length; i++) {
+            lines[i] = histograms[i].summary();
+        }
+        return lines;
+    }
+
+    @Override
+    public synchronized String[] getRecentEdtStalls() {
+        return recentStalls.toArray(new String[0]);
+    }
+
+    @Override
+    public double percentileMillis(String histogram, double percentile) {
+        for (LatencyHistogram h : histograms) {
+            if (h.getName().equals(histogram)) {
+                return h.getPercentileNanos(percentile) / 1e6;
+            }
+        }
+        throw new IllegalArgumentException("Нет гистограммы " + histogram);
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (LatencyHistogram h : histograms) {
+            h.reset();
+        }
+        tasksLoaded.set(0);
+        bytesWritten.set(0);
+        saves.set(0);
+        failedSaves.set(0);
+        edtStalls.set(0);
+        Arrays.fill(savesBySecond, 0);
+        recentStalls.clear();
+    }
+}
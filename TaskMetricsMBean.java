@@ -0,0 +1,37 @@
+// Интерфейс JMX для TaskMetrics (имя PinkTodo:type=Metrics).
+// JMX требует, чтобы интерфейс MBean был публичным.
+public interface TaskMetricsMBean {
+    long getTasksLoaded();
+
+    long getBytesWritten();
+
+    long getSaves();
+
+    double getSavesPerMinute();
+
+    long getFailedSaves();
+
+    // сколько ждёт записи самое старое незаписанное изменение
+    long getSaveLagMillis();
+
+    // почему изменения сейчас не записываются; пустая строка, если записываются
+    String getSaveFailure();
+
+    long getEdtStalls();
+
+    long getEdtStallThresholdMillis();
+
+    // от запуска JVM; -1, пока событие не произошло
+    long getTimeToFirstPaintMillis();
+
+    long getTimeToFullyLoadedMillis();
+
+    String[] getLatencies();
+
+    String[] getRecentEdtStalls();
+
+    // histogram — load, save, snapshot, rebuild, render или edt
+    double percentileMillis(String histogram, double percentile);
+
+    void reset();
+}
@@ -0,0 +1,154 @@
+import java.util.Arrays;
+import java.util.Comparator;
+
+// Упорядоченный индекс задач по ключу (дедлайн, дата создания, статус).
+// Хранится как отсортированные параллельные массивы (ключ, id); изменения
+// вставляются и удаляются двоичным поиском, без пересортировки списка.
+// Запрос по диапазону ключей — два двоичных поиска и обход k найденных задач.
+// Прежний ключ изменённой задачи считается из неё же в taskUpdating, поэтому
+// ключи по id отдельно не хранятся.
+class TaskOrderIndex implements TaskListModel.Listener {
+    interface KeyFunction {
+        long key(Task task);
+    }
+
+    // Ключи задач из taskUpdating до парных им taskUpdated. Модель сообщает taskUpdated
+    // в том же порядке (в updateAll — после всех taskUpdating), так что хватает очереди.
+    static final class PendingKeys {
+        private long[] keys = new long[16];
+        private int head;
+        private int count;
+
+        void add(long key) {
+            if (head + count == keys.length) {
+                if (head > 0) {
+                    System.arraycopy(keys, head, keys, 0, count);
+                    head = 0;
+                } else {
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                }
+            }
+            keys[head + count++] = key;
+        }
+
+        long next() {
+            long key = keys[head];
+            count--;
+            head = count == 0 ? 0 : head + 1;
+            return key;
+        }
+    }
+
+    // задачи без дедлайна идут в конце
+    static final KeyFunction BY_DEADLINE = task -> task.hasDeadline() ? task.getDeadlineDay() : Long.MAX_VALUE;
+    static final KeyFunction BY_CREATED_AT = task -> Math.floorDiv(task.getCreatedAtMillis(), 1000);
+    static final KeyFunction BY_COMPLETION = task -> task.isCompleted() ? 1 : 0;
+
+    private final KeyFunction keyFunction;
+    private final PendingKeys oldKeys = new PendingKeys();
+    private long[] keys;
+    private int[] ids;
+    private int size;
+
+    TaskOrderIndex(TaskListModel model, KeyFunction keyFunction) {
+        this.keyFunction = keyFunction;
+        int count = model.getSize();
+        keys = new long[Math.max(16, count)];
+        ids = new int[keys.length];
+
+        Task[] sorted = new Task[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = model.taskAt(i);
+        }
+        Arrays.sort(sorted, Comparator.comparingLong(keyFunction::key).thenComparingInt(Task::getId));
+        for (Task task : sorted) {
+            keys[size] = keyFunction.key(task);
+            ids[size] = task.getId();
+            size++;
+        }
+    }
+
+    KeyFunction getKeyFunction() {
+        return keyFunction;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int idAt(int position) {
+        return ids[position];
+    }
+
+    long keyAt(int position) {
+        return keys[position];
+    }
+
+    // Первая позиция с ключом не меньше key.
+    int lowerBound(long key) {
+        return position(key, Integer.MIN_VALUE);
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        insert(keyFunction.key(task), task.getId());
+    }
+
+    @Override
+    public void taskUpdating(int index, Task task) {
+        oldKeys.add(keyFunction.key(task));
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        int id = task.getId();
+        long oldKey = oldKeys.next();
+        long newKey = keyFunction.key(task);
+        if (oldKey != newKey) {
+            remove(oldKey, id);
+            insert(newKey, id);
+        }
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        remove(keyFunction.key(task), task.getId());
+    }
+
+    private void insert(long key, int id) {
+        int position = position(key, id);
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        System.arraycopy(keys, position, keys, position + 1, size - position);
+        System.arraycopy(ids, position, ids, position + 1, size - position);
+        keys[position] = key;
+        ids[position] = id;
+        size++;
+    }
+
+    private void remove(long key, int id) {
+        int position = position(key, id);
+        if (position < size && keys[position] == key && ids[position] == id) {
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+    }
+
+    // Первая позиция, где пара (ключ, id) не меньше заданной.
+    private int position(long key, int id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key || (keys[mid] == key && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
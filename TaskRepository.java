@@ -0,0 +1,678 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+// Хранилище задач без интерфейса: снимок и журнал на диске, модель списка
+// в памяти и фоновая запись изменений. Его используют и окно приложения,
+// и консольный TaskCli; класс не трогает AWT.
+//
+// Изменения идут через методы по id задачи и только из одного потока (в окне —
+// из потока Swing), который читает модель и без блокировки. Другие потоки читают
+// через get и query: они копируют задачи и держат блокировку чтения не дольше
+// просмотра QUERY_SLICE задач, так что поток изменений почти не ждёт читателей.
+//
+// Импорт и экспорт работают потоком прямо по снимку, не загружая задачи в память.
+//
+// Файлы могут менять и другие процессы (второе окно, TaskCli). После watch
+// их изменения переносятся в модель по id задачи, а id новых задач выдаются
+// из блоков, зарезервированных в журнале, поэтому не совпадают между процессами.
+//
+// Выполненные задачи старше заданного срока уходят в архив (TaskArchive) и
+// больше не загружаются, не пишутся в снимок и не рисуются. Архив читается
+// только по запросу, а возвращённая из него задача снова становится невыполненной.
+class TaskRepository implements Closeable {
+    static final String SNAPSHOT_FILE = "tasks.dat";
+    static final String LOG_FILE = "tasks.log";
+
+    // столько записей импорта разбирается параллельно за раз
+    private static final int IMPORT_CHUNK = 4096;
+    // столько задач query просматривает за одно взятие блокировки
+    private static final int QUERY_SLICE = 4096;
+    private static final int ID_BLOCK = 1024;
+    // столько поток модели ждёт блок id, пока файлы задач заняты другим процессом
+    private static final long ID_WAIT_MS = 200;
+
+    private final File snapshotFile;
+    private final File logFile;
+    private final TaskJournal journal;
+    private final TaskSaver saver;
+    private final TaskArchive archive;
+    private TaskListModel model;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private TaskFileWatcher watcher;
+    // выданные id берутся из [nextFreeId, reservedEnd); следующий блок резервируется заранее
+    private int nextFreeId;
+    private int reservedEnd;
+    private CompletableFuture<Integer> nextBlock;
+
+    TaskRepository(File snapshotFile, File logFile, long saveIntervalMillis, Consumer<IOException> onSaveFailure) {
+        this.snapshotFile = snapshotFile;
+        this.logFile = logFile;
+        this.journal = new TaskJournal(snapshotFile, logFile);
+        this.saver = new TaskSaver(journal, saveIntervalMillis, onSaveFailure);
+        this.archive = new TaskArchive(new File(snapshotFile.getPath() + ".archive"));
+    }
+
+    File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    // Снимок для постраничного просмотра без загрузки задач или null,
+    // если в журнале есть несвёрнутые изменения или формат снимка старый.
+    PagedTaskStore openPaged() {
+        if (journal.hasPendingLog()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        try {
+            PagedTaskStore store = PagedTaskStore.open(snapshotFile);
+            TaskMetrics.INSTANCE.load.recordSince(start);
+            return store;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Читает все задачи; можно вызывать не из потока Swing. Задачи только для чтения:
+    // их поля переносит в себя TaskListModel.
+    // Если файлы не читаются, бросает исключение: пустой список вместо них
+    // ушёл бы в журнал, и уплотнение заменило бы нечитаемый снимок пустым.
+    List<Task> loadTasks() throws IOException {
+        long start = System.nanoTime();
+        List<Task> tasks = journal.load();
+        TaskMetrics.INSTANCE.load.recordSince(start);
+        TaskMetrics.INSTANCE.tasksLoaded(tasks.size());
+        return tasks;
+    }
+
+    // Модель с загруженными задачами; с этого момента её изменения уходят в журнал.
+    void attach(TaskListModel model) {
+        model.reserveIdsBelow(journal.getNextId());
+        model.addTaskListener(saver);
+        TaskMetrics.INSTANCE.watchSaver(saver);
+        this.model = model;
+        stampLegacyCompletions();
+        nextBlock = CompletableFuture.supplyAsync(this::reserveBlock);
+    }
+
+    // У задач, выполненных до того, как стали хранить время выполнения, его нет.
+    // Оно считается моментом загрузки и уходит в журнал: иначе архив забрал бы
+    // такие задачи сразу, а не через заданный срок.
+    private void stampLegacyCompletions() {
+        int[] indexes = new int[model.getSize()];
+        int count = 0;
+        for (int i = 0; i < model.getSize(); i++) {
+            if (model.isCompletedAt(i) && model.completedAtMillisAt(i) == Task.NO_TIME) {
+                indexes[count++] = i;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        long now = Task.toMillis(LocalDateTime.now());
+        lock.writeLock().lock();
+        try {
+            model.updateAll(Arrays.copyOf(indexes, count), task -> task.setCompletedAtMillis(now));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Следит за файлами и переносит в модель изменения других процессов.
+    // Модель меняется только через modelExecutor (в окне — поток Swing).
+    void watch(Executor modelExecutor) throws IOException {
+        journal.setExternalChangeListener(() -> modelExecutor.execute(this::mergeExternalChanges));
+        File directory = snapshotFile.getAbsoluteFile().getParentFile();
+        watcher = new TaskFileWatcher(directory, Set.of(snapshotFile.getName(), logFile.getName()),
+                this::refresh);
+        // то, что журнал уже дочитал, пока задачи загружались
+        modelExecutor.execute(this::mergeExternalChanges);
+    }
+
+    private void refresh() {
+        try {
+            journal.refresh();
+        } catch (IOException e) {
+            // файлы сейчас недоступны; следующее событие проверит их снова
+        }
+    }
+
+    // Переносит в модель чужие изменения из журнала. Задачи, свои изменения
+    // которых ещё не записаны, пропускаются: эти изменения запишутся позже
+    // и перекроют чужие, так что модель и файлы всё равно сойдутся.
+    private void mergeExternalChanges() {
+        int[] ids = journal.takeExternalChanges();
+        if (ids.length == 0 || model == null) {
+            return;
+        }
+        BitSet unsaved = saver.getUnsavedIds();
+        lock.writeLock().lock();
+        saver.setRecording(false);
+        try {
+            int[] updated = new int[ids.length];
+            IntHashMap<Task> updatedTasks = new IntHashMap<>();
+            int[] removed = new int[ids.length];
+            int updatedCount = 0;
+            int removedCount = 0;
+            List<Task> added = new ArrayList<>();
+            for (int id : ids) {
+                if (unsaved.get(id)) {
+                    continue;
+                }
+                Task stored = journal.getStored(id);
+                int index = model.indexOf(id);
+                if (stored == null) {
+                    if (index >= 0) {
+                        removed[removedCount++] = index;
+                    }
+                } else if (index < 0) {
+                    added.add(stored);
+                } else {
+                    if (!model.getElementAt(index).sameContent(stored)) {
+                        updatedTasks.put(id, stored);
+                        updated[updatedCount++] = index;
+                    }
+                }
+            }
+            // ids по возрастанию, значит, и индексы тоже
+            model.updateAll(Arrays.copyOf(updated, updatedCount),
+                    task -> task.setContent(updatedTasks.get(task.getId())));
+            model.removeAll(Arrays.copyOf(removed, removedCount));
+            for (Task task : added) {
+                model.insert(task);
+            }
+        } finally {
+            saver.setRecording(true);
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Новый id больше всех id в модели, чтобы своя задача встала в конец списка.
+    // Если другой процесс уже выдал id выше текущего блока, блок бросается.
+    // Блоки резервируются в фоне. Если нового блока нет дольше ID_WAIT_MS (файлы
+    // держит другой процесс), бросает IOException, а не держит поток модели:
+    // блок дорезервируется в фоне и пригодится следующей попытке.
+    private int allocateId() throws IOException {
+        int lastId = model.getSize() == 0 ? 0 : model.idAt(model.getSize() - 1);
+        while (nextFreeId >= reservedEnd || nextFreeId <= lastId) {
+            if (nextBlock == null) {
+                nextBlock = CompletableFuture.supplyAsync(this::reserveBlock);
+            }
+            int first;
+            try {
+                first = nextBlock.get(ID_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new IOException("Файл задач занят другим процессом, попробуйте ещё раз", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Выдача id прервана");
+            } catch (ExecutionException e) {
+                first = -1;
+            }
+            nextBlock = null;
+            if (first < 0) {
+                // журнал недоступен: id из счётчика модели, как без других процессов
+                return model.allocateId();
+            }
+            nextFreeId = first;
+            reservedEnd = first + ID_BLOCK;
+        }
+        if (nextBlock == null && reservedEnd - nextFreeId <= ID_BLOCK / 2) {
+            nextBlock = CompletableFuture.supplyAsync(this::reserveBlock);
+        }
+        return nextFreeId++;
+    }
+
+    // Первый id нового блока или -1, если журнал недоступен.
+    private int reserveBlock() {
+        try {
+            return journal.reserveIds(ID_BLOCK);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    long getSaveLagMillis() {
+        return saver.getSaveLagMillis();
+    }
+
+    // Ошибка, из-за которой изменения сейчас не записываются, или null.
+    IOException getSaveFailure() {
+        return saver.getFailure();
+    }
+
+    TaskListModel getModel() {
+        return model;
+    }
+
+    Task add(String title, String description, String tag, int deadlineDay) throws IOException {
+        return add(title, description, tag, deadlineDay, false);
+    }
+
+    // Задача сразу со всеми полями: одно событие модели и одна запись в журнале.
+    // IOException — id не выдан (см. allocateId), задача не добавлена.
+    Task add(String title, String description, String tag, int deadlineDay, boolean completed)
+            throws IOException {
+        lock.writeLock().lock();
+        try {
+            Task task = new Task(allocateId(), title, description, tag, deadlineDay);
+            task.setCompleted(completed);
+            model.add(task);
+            return task;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean update(int id, String title, String description, String tag, int deadlineDay) {
+        lock.writeLock().lock();
+        try {
+            int index = model.indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            model.update(index, task -> {
+                task.setTitle(title);
+                task.setDescription(description);
+                task.setTag(tag);
+                task.setDeadlineDay(deadlineDay);
+            });
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Заменяет заголовок, описание, тег, дедлайн и статус задачи одним изменением.
+    // Возвращает копию изменённой задачи или null, если задачи нет.
+    Task replace(int id, Task values) {
+        lock.writeLock().lock();
+        try {
+            int index = model.indexOf(id);
+            if (index < 0) {
+                return null;
+            }
+            model.update(index, task -> {
+                task.setTitle(values.getTitle());
+                task.setDescription(values.getDescription());
+                task.setTag(values.getTag());
+                task.setDeadlineDay(values.getDeadlineDay());
+                task.setCompleted(values.isCompleted());
+            });
+            return model.getElementAt(index).copy();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Пакетные изменения: одно событие модели и одна запись в журнале на весь пакет.
+    // Возвращают число задач, которые действительно изменились.
+    int setCompleted(int[] ids, boolean completed) {
+        lock.writeLock().lock();
+        try {
+            int[] indexes = indexesOf(ids, task -> task.isCompleted() != completed);
+            model.updateAll(indexes, task -> task.setCompleted(completed));
+            return indexes.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int setTag(int[] ids, String tag) {
+        lock.writeLock().lock();
+        try {
+            int[] indexes = indexesOf(ids, task -> !Objects.equals(task.getTag(), tag));
+            model.updateAll(indexes, task -> task.setTag(tag));
+            return indexes.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Сдвигает дедлайны на days дней; задачи без дедлайна не трогает.
+    int moveDeadlines(int[] ids, int days) {
+        lock.writeLock().lock();
+        try {
+            int[] indexes = indexesOf(ids, Task::hasDeadline);
+            model.updateAll(indexes, task -> task.setDeadlineDay(task.getDeadlineDay() + days));
+            return indexes.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int removeAll(int[] ids) {
+        lock.writeLock().lock();
+        try {
+            int[] indexes = indexesOf(ids, task -> true);
+            model.removeAll(indexes);
+            return indexes.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Копия задачи или null; можно вызывать из любого потока.
+    Task get(int id) {
+        lock.readLock().lock();
+        try {
+            Task task = model.getById(id);
+            return task == null ? null : task.copy();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Копии задач, подходящих под фильтр, в порядке списка: пропускает offset
+    // подходящих и возвращает не больше limit. Можно вызывать из любого потока.
+    // Список просматривается кусками; между ними блокировка отпускается, а
+    // просмотр продолжается с id последней задачи, так что сдвиг индексов
+    // из-за удалений ничего не ломает.
+    List<Task> query(Predicate<Task> filter, int offset, int limit) {
+        List<Task> result = new ArrayList<>(Math.min(limit, 1024));
+        int skipped = 0;
+        int lastId = Integer.MIN_VALUE;
+        while (result.size() < limit) {
+            lock.readLock().lock();
+            try {
+                int i = model.indexAfter(lastId);
+                int end = Math.min(model.getSize(), i + QUERY_SLICE);
+                if (i >= end) {
+                    break;
+                }
+                for (; i < end && result.size() < limit; i++) {
+                    Task task = model.taskAt(i);
+                    if (filter.test(task) && skipped++ >= offset) {
+                        result.add(task);
+                    }
+                }
+                lastId = model.idAt(i - 1);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return result;
+    }
+
+    // Переносит в архив задачи, выполненные больше maxAgeDays дней назад.
+    // Вызывается в потоке модели: задачи сразу копируются, архив пишется в фоне,
+    // и только потом задачи убираются из модели через modelExecutor. Задача,
+    // которую за это время изменили или удалили, остаётся как есть, а её копия
+    // в архиве отменяется. Если запись архива упала, список не меняется.
+    CompletableFuture<Integer> archiveCompleted(int maxAgeDays, Executor modelExecutor) {
+        long cutoff = Task.toMillis(LocalDateTime.now().minusDays(maxAgeDays));
+        List<Task> candidates = new ArrayList<>();
+        // копии собираются только для задач, которые уйдут в архив
+        for (int i = 0; i < model.getSize(); i++) {
+            long completedAt = model.completedAtMillisAt(i);
+            // без времени выполнения бывают только задачи от процесса старой версии;
+            // время им проставит следующая загрузка
+            if (model.isCompletedAt(i) && completedAt != Task.NO_TIME && completedAt < cutoff) {
+                candidates.add(model.taskAt(i));
+            }
+        }
+        if (candidates.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                archive.append(candidates);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).thenApplyAsync(ignored -> removeArchived(candidates), modelExecutor);
+    }
+
+    private int removeArchived(List<Task> archived) {
+        int[] indexes = new int[archived.size()];
+        int[] stale = new int[archived.size()];
+        int count = 0;
+        int staleCount = 0;
+        lock.writeLock().lock();
+        try {
+            for (Task copy : archived) {
+                int index = model.indexOf(copy.getId());
+                if (index >= 0 && model.getElementAt(index).sameContent(copy)) {
+                    indexes[count++] = index;
+                } else {
+                    stale[staleCount++] = copy.getId();
+                }
+            }
+            // копии собраны в порядке списка, значит, индексы уже по возрастанию
+            model.removeAll(Arrays.copyOf(indexes, count));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (staleCount > 0) {
+            int[] ids = Arrays.copyOf(stale, staleCount);
+            CompletableFuture.runAsync(() -> markRestored(ids));
+        }
+        return count;
+    }
+
+    // Задачи архива по возрастанию id, кроме тех, что уже есть в списке.
+    // Читает каталог архива с диска, поэтому вызывается не из потока Swing.
+    TaskArchive.View openArchive() throws IOException {
+        TaskArchive.View view = archive.open();
+        if (model == null) {
+            return view;
+        }
+        // после сбоя между записью архива и журнала задача бывает в обоих местах; список важнее
+        lock.readLock().lock();
+        try {
+            return view.without(id -> model.indexOf(id) >= 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Возвращает задачи из архива в список невыполненными. Вызывается в потоке модели.
+    // В архиве они отменяются только после того, как их добавление записано в
+    // журнал, так что при сбое задача не пропадёт, а в худшем случае будет в обоих местах.
+    int restoreArchived(List<Task> tasks) {
+        int[] ids = new int[tasks.size()];
+        int count = 0;
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                if (model.indexOf(task.getId()) >= 0) {
+                    continue;
+                }
+                Task restored = task.copy();
+                restored.setCompleted(false);
+                model.insert(restored);
+                ids[count++] = task.getId();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int[] restoredIds = Arrays.copyOf(ids, count);
+        if (count > 0) {
+            saver.afterSaved(() -> markRestored(restoredIds));
+        }
+        return count;
+    }
+
+    private void markRestored(int[] ids) {
+        try {
+            archive.markRestored(ids);
+        } catch (IOException e) {
+            // копия останется в архиве, но openArchive её не покажет, пока задача в списке
+        }
+    }
+
+    private int[] indexesOf(int[] ids, Predicate<Task> filter) {
+        int[] indexes = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            int index = model.indexOf(id);
+            if (index >= 0 && filter.test(model.getElementAt(index))) {
+                indexes[count++] = index;
+            }
+        }
+        Arrays.sort(indexes, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || indexes[unique - 1] != indexes[i]) {
+                indexes[unique++] = indexes[i];
+            }
+        }
+        return Arrays.copyOf(indexes, unique);
+    }
+
+    // Пишет все задачи в порядке id. Память не зависит от числа задач.
+    int exportTasks(Writer out, TaskFormat format) throws IOException {
+        foldLog();
+        StringBuilder line = new StringBuilder(256);
+        int[] count = {0};
+        if (format.header() != null) {
+            out.write(format.header());
+        }
+        try {
+            TaskCodec.forEach(snapshotFile, task -> {
+                line.setLength(0);
+                format.append(line, task);
+                try {
+                    out.append(line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        return count[0];
+    }
+
+    // Добавляет задачи из потока в конец списка. Новый снимок пишется потоком:
+    // старые задачи, затем импортированные. Записи читаются пачками по IMPORT_CHUNK
+    // и разбираются параллельно; если хоть одна не разобралась, снимок не меняется.
+    //
+    // Всё идёт под блокировкой файлов, а номер последней записи в новом снимке
+    // на единицу больше прежнего: открытые окна увидят, что снимок переписан,
+    // и перечитают его.
+    int importTasks(Reader in, TaskFormat format) throws IOException {
+        if (model != null) {
+            throw new IllegalStateException("Импорт возможен только до загрузки задач");
+        }
+        return journal.withLock(() -> importLocked(in, format));
+    }
+
+    private int importLocked(Reader in, TaskFormat format) throws IOException {
+        foldLog();
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+        File tmp = new File(snapshotFile.getPath() + ".import");
+        int imported = 0;
+        try (TaskCodec.StreamWriter writer = new TaskCodec.StreamWriter(tmp)) {
+            int[] nextId = {1};
+            TaskCodec.Header header;
+            try {
+                header = TaskCodec.forEach(snapshotFile, task -> {
+                    nextId[0] = Math.max(nextId[0], task.getId() + 1);
+                    try {
+                        writer.write(task);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            int firstId = Math.max(nextId[0], header.nextId);
+
+            // первая запись пропускается, только если это заголовок: в файле без заголовка
+            // она — первая задача
+            String first = null;
+            if (format.header() != null) {
+                first = format.readRecord(reader);
+                if (first != null && first.replace("\uFEFF", "").equals(String.join(",", TaskFormat.FIELDS))) {
+                    first = null;
+                }
+            }
+            String[] records = new String[IMPORT_CHUNK];
+            Task[] parsed = new Task[IMPORT_CHUNK];
+            while (true) {
+                int n = 0;
+                if (first != null) {
+                    records[n++] = first;
+                    first = null;
+                }
+                String record;
+                while (n < IMPORT_CHUNK && (record = format.readRecord(reader)) != null) {
+                    records[n++] = record;
+                }
+                if (n == 0) {
+                    break;
+                }
+                int chunkStart = imported;
+                int chunkSize = n;
+                try {
+                    Arrays.parallelSetAll(parsed, i -> i >= chunkSize ? null : parseRecord(format, records[i], i, chunkStart, firstId));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+                for (int i = 0; i < n; i++) {
+                    writer.write(parsed[i]);
+                }
+                imported += n;
+            }
+            writer.finish(header.sequence + 1, firstId + imported);
+        }
+        Files.move(tmp.toPath(), snapshotFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return imported;
+    }
+
+    private static Task parseRecord(TaskFormat format, String record, int i, int chunkStart, int firstId) {
+        try {
+            return format.parse(record, firstId + chunkStart + i);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Запись " + (chunkStart + i + 1) + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Сворачивает журнал в снимок, чтобы снимок можно было читать напрямую.
+    private void foldLog() throws IOException {
+        if (journal.hasPendingLog()) {
+            journal.load();
+            boolean folded = journal.fold();
+            journal.unload();
+            if (!folded) {
+                throw new IOException("Журнал сейчас уплотняет другой процесс, повторите позже");
+            }
+        }
+    }
+
+    // Записывает накопленные изменения и закрывает журнал.
+    @Override
+    public void close() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+            }
+        }
+        saver.close();
+        try {
+            archive.close();
+        } catch (IOException e) {
+        }
+    }
+}
@@ -0,0 +1,213 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Фоновая запись изменений. Изменения копятся в очереди и уходят в журнал
+// одной пачкой не чаще раза в интервал, поэтому поток Swing никогда не ждёт диск.
+// Пакетное изменение модели уходит в журнал одной записью и применяется целиком или никак.
+class TaskSaver implements TaskListModel.Listener {
+    private final TaskJournal journal;
+    private final long intervalMillis;
+    private final Consumer<IOException> onFailure;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "task-saver");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private List<TaskJournal.Entry> pending = new ArrayList<>();
+    // пачка, которая сейчас пишется в журнал
+    private List<TaskJournal.Entry> inFlight = Collections.emptyList();
+    private long oldestPendingNanos;
+    private boolean flushScheduled;
+    private int consecutiveFailures;
+    // изменения текущего пакета модели; трогается только из потока Swing
+    private List<TaskJournal.Entry> batch;
+    // false, пока модель получает изменения, которые уже лежат в журнале
+    private boolean recording = true;
+    // ошибка последней попытки записи; null, если она удалась
+    private volatile IOException failure;
+
+    TaskSaver(TaskJournal journal, long intervalMillis, Consumer<IOException> onFailure) {
+        this.journal = journal;
+        this.intervalMillis = intervalMillis;
+        this.onFailure = onFailure;
+    }
+
+    // Задача копируется сразу: дальше поток Swing может менять её как угодно.
+    void submit(byte op, int id, Task task) {
+        if (!recording) {
+            return;
+        }
+        TaskJournal.Entry entry = new TaskJournal.Entry(op, id, task == null ? null : task.copy());
+        if (batch != null) {
+            batch.add(entry);
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    @Override
+    public void batchStarted() {
+        batch = new ArrayList<>();
+    }
+
+    @Override
+    public void batchFinished() {
+        List<TaskJournal.Entry> entries = batch;
+        batch = null;
+        if (!entries.isEmpty()) {
+            enqueue(new TaskJournal.Entry(entries));
+        }
+    }
+
+    private synchronized void enqueue(TaskJournal.Entry entry) {
+        if (pending.isEmpty()) {
+            oldestPendingNanos = System.nanoTime();
+        }
+        pending.add(entry);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(this::flushPending, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        submit(TaskJournal.OP_ADD, task.getId(), task);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        submit(TaskJournal.OP_UPDATE, task.getId(), task);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        submit(TaskJournal.OP_REMOVE, task.getId(), null);
+    }
+
+    // Вызывается из потока Swing.
+    void setRecording(boolean recording) {
+        this.recording = recording;
+    }
+
+    // Id задач, изменения которых ещё не записаны в журнал.
+    synchronized BitSet getUnsavedIds() {
+        BitSet ids = new BitSet();
+        for (List<TaskJournal.Entry> entries : List.of(pending, inFlight)) {
+            for (TaskJournal.Entry entry : entries) {
+                if (entry.op == TaskJournal.OP_BATCH) {
+                    for (TaskJournal.Entry change : entry.batch) {
+                        ids.set(change.id);
+                    }
+                } else {
+                    ids.set(entry.id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Выполняет action в потоке записи, когда всё, что накоплено к этому моменту,
+    // уже в журнале. Если запись не удалась, action ждёт следующей попытки.
+    void afterSaved(Runnable action) {
+        executor.execute(() -> {
+            flushPending();
+            if (consecutiveFailures == 0) {
+                action.run();
+            } else {
+                executor.schedule(() -> afterSaved(action), intervalMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+    // Сколько миллисекунд самое старое незаписанное изменение ждёт записи.
+    synchronized long getSaveLagMillis() {
+        return pending.isEmpty() ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestPendingNanos);
+    }
+
+    // Ошибка, из-за которой изменения сейчас не записываются, или null.
+    IOException getFailure() {
+        return failure;
+    }
+
+    // Записывает всё накопленное и закрывает журнал. Вызывается при закрытии окна.
+    void close() {
+        try {
+            executor.submit(() -> {
+                flushPending();
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    recordFailure(e);
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+        }
+        executor.shutdown();
+    }
+
+    private void flushPending() {
+        List<TaskJournal.Entry> batch;
+        long batchStartNanos;
+        synchronized (this) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            batchStartNanos = oldestPendingNanos;
+            pending = new ArrayList<>();
+            inFlight = batch;
+        }
+
+        long start = System.nanoTime();
+        try {
+            journal.append(batch);
+            synchronized (this) {
+                inFlight = Collections.emptyList();
+            }
+            TaskMetrics.INSTANCE.saved(start);
+            consecutiveFailures = 0;
+            failure = null;
+        } catch (IOException e) {
+            synchronized (this) {
+                inFlight = Collections.emptyList();
+                batch.addAll(pending);
+                pending = batch;
+                oldestPendingNanos = batchStartNanos;
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    executor.schedule(this::flushPending, intervalMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            failure = e;
+            recordFailure(e);
+            return;
+        }
+
+        try {
+            journal.maybeCompact();
+        } catch (IOException e) {
+            recordFailure(e);
+        }
+    }
+
+    // Неудачное сжатие тоже считается ошибкой записи, но изменения при этом уже в журнале.
+    private void recordFailure(IOException e) {
+        TaskMetrics.INSTANCE.saveFailed();
+        if (++consecutiveFailures == 1 && onFailure != null) {
+            onFailure.accept(e);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Инвертированный индекс по словам заголовка и описания. Слово -> отсортированный
+// массив id задач (большинство слов редкие, и битсет на каждое было бы слишком велик).
+// Словарь отсортирован, поэтому поиск по префиксу — обход поддиапазона слов.
+// Регистр не учитывается (в том числе для кириллицы), «ё» считается «е».
+class TaskSearchIndex implements TaskListModel.Listener {
+    private static final Locale RU = new Locale("ru");
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+    private final IntHashMap<String[]> tokensById = new IntHashMap<>();
+
+    TaskSearchIndex(Iterable<Task> tasks) {
+        for (Task task : tasks) {
+            index(task);
+        }
+    }
+
+    // Каждое слово запроса — префикс; задача подходит, если подходят все слова.
+    BitSet query(String[] queryTokens) {
+        BitSet result = null;
+        for (String prefix : queryTokens) {
+            BitSet matching = new BitSet();
+            for (Postings ids : prefixRange(prefix).values()) {
+                ids.addTo(matching);
+            }
+            if (result == null) {
+                result = matching;
+            } else {
+                result.and(matching);
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new BitSet() : result;
+    }
+
+    static boolean matches(Task task, String[] queryTokens) {
+        String[] taskTokens = tokenize(task);
+        for (String prefix : queryTokens) {
+            boolean found = false;
+            for (String token : taskTokens) {
+                if (token.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return NO_TOKENS;
+        }
+        List<String> tokens = new ArrayList<>();
+        String normalized = text.toLowerCase(RU).replace('ё', 'е');
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!tokens.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        index(task);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        unindex(task.getId());
+        index(task);
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        unindex(task.getId());
+    }
+
+    private static String[] tokenize(Task task) {
+        String[] title = tokenize(task.getTitle());
+        String[] description = tokenize(task.getDescription());
+        if (description.length == 0) {
+            return title;
+        }
+        List<String> tokens = new ArrayList<>(List.of(title));
+        for (String token : description) {
+            if (!tokens.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(NO_TOKENS);
+    }
+
+    private void index(Task task) {
+        int id = task.getId();
+        String[] tokens = tokenize(task);
+        tokensById.put(id, tokens);
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, k -> new Postings()).add(id);
+        }
+    }
+
+    private void unindex(int id) {
+        String[] tokens = tokensById.remove(id);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Postings ids = postings.get(token);
+            ids.remove(id);
+            if (ids.size == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private Map<String, Postings> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static final class Postings {
+        private int[] ids = new int[2];
+        private int size;
+
+        // Новые задачи получают наибольший id, так что обычно это добавление в конец.
+        void add(int id) {
+            int position = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+
+        void addTo(BitSet result) {
+            for (int i = 0; i < size; i++) {
+                result.set(ids[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,349 @@
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Локальный REST API поверх TaskRepository. Слушает только 127.0.0.1,
+// задачи передаются в формате TaskFormat.JSONL.
+//
+// Слушать только 127.0.0.1 мало: страница в браузере может достучаться до
+// сервера через DNS rebinding или простым POST с другого сайта. Поэтому сервер
+// отвечает только на запросы с Host 127.0.0.1:порт или localhost:порт, без
+// заголовка Origin и с заголовком «Authorization: Bearer <токен>». Токен новый
+// при каждом запуске и лежит в файле tasks.dat.token рядом с задачами (читать
+// его может только владелец). Тело POST и PUT принимается только с
+// Content-Type application/x-ndjson или application/json: такие запросы браузер
+// без разрешения сервера не отправит.
+//
+//   GET    /tasks?q=&tag=&completed=true|false&offset=0&limit=100   — по задаче в строке
+//   GET    /tasks/{id}
+//   POST   /tasks          — тело: объект задачи; ответ 201 и созданная задача
+//   PUT    /tasks/{id}     — заменяет title, description, tag, deadline и completed
+//   DELETE /tasks/{id}
+//
+// Чтение идёт прямо в потоках сервера через TaskRepository.get и query.
+// Изменения выполняются через modelExecutor (в окне — поток Swing), поэтому
+// JList получает обычные события модели и обновляет только затронутые строки.
+class TaskServer implements Closeable {
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 10_000;
+    private static final int MAX_BODY = 1 << 20;
+    // одновременно обрабатываемых запросов
+    private static final int WORKERS = 4;
+    private static final Logger LOG = Logger.getLogger(TaskServer.class.getName());
+    private static final String CONTENT_TYPE = "application/x-ndjson; charset=utf-8";
+    static final String TOKEN_SUFFIX = ".token";
+
+    private final TaskRepository repository;
+    private final Executor modelExecutor;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final String token;
+    private final File tokenFile;
+
+    TaskServer(TaskRepository repository, int port, Executor modelExecutor) throws IOException {
+        this.repository = repository;
+        this.modelExecutor = modelExecutor;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        this.tokenFile = new File(repository.getSnapshotFile().getPath() + TOKEN_SUFFIX);
+        writeToken(tokenFile, token);
+        AtomicInteger threads = new AtomicInteger();
+        // виртуальных потоков в Java 17 нет; потоков не больше WORKERS, остальные запросы
+        // ждут в очереди — потоки создаются раньше проверки токена
+        this.workers = Executors.newFixedThreadPool(WORKERS, r -> {
+            Thread thread = new Thread(r, "task-http-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/tasks", this::handle);
+        server.setExecutor(workers);
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    String getToken() {
+        return token;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdown();
+        tokenFile.delete();
+    }
+
+    // Файл с токеном доступен только владельцу; старый файл прошлого запуска заменяется.
+    private static void writeToken(File file, String token) throws IOException {
+        Path path = file.toPath();
+        Files.deleteIfExists(path);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createFile(path);
+        }
+        Files.write(path, (token + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // 0 — запрос можно выполнять, иначе код ответа с отказом.
+    private int rejection(HttpExchange exchange) {
+        Headers headers = exchange.getRequestHeaders();
+        if (headers.containsKey("Origin")) {
+            return 403;
+        }
+        String host = headers.getFirst("Host");
+        String port = ":" + getPort();
+        if (host == null || !(host.equalsIgnoreCase("127.0.0.1" + port) || host.equalsIgnoreCase("localhost" + port))) {
+            return 403;
+        }
+        String authorization = headers.getFirst("Authorization");
+        String presented = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim() : "";
+        // сравнение за постоянное время, чтобы токен нельзя было подобрать по задержке ответа
+        if (!MessageDigest.isEqual(presented.getBytes(StandardCharsets.US_ASCII), token.getBytes(StandardCharsets.US_ASCII))) {
+            return 401;
+        }
+        String method = exchange.getRequestMethod();
+        if (method.equals("POST") || method.equals("PUT")) {
+            String type = headers.getFirst("Content-Type");
+            String mediaType = type == null ? "" : type.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            if (!mediaType.equals("application/x-ndjson") && !mediaType.equals("application/json")) {
+                return 415;
+            }
+        }
+        return 0;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            int rejection = rejection(exchange);
+            if (rejection != 0) {
+                send(exchange, rejection, rejection == 401 ? "Нужен токен доступа\n"
+                        : rejection == 415 ? "Тело запроса — только application/x-ndjson или application/json\n"
+                        : "Запрос отклонён\n");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/tasks") || path.equals("/tasks/")) {
+                switch (method) {
+                    case "GET":
+                        list(exchange);
+                        break;
+                    case "POST":
+                        create(exchange);
+                        break;
+                    default:
+                        send(exchange, 405, "Метод не поддерживается\n");
+                }
+                return;
+            }
+            int id = parseId(path.substring("/tasks/".length()));
+            switch (method) {
+                case "GET":
+                    Task task = repository.get(id);
+                    sendTask(exchange, task == null ? 404 : 200, task);
+                    break;
+                case "PUT":
+                    replace(exchange, id);
+                    break;
+                case "DELETE":
+                    int removed = onModelThread(() -> repository.removeAll(new int[] {id}));
+                    send(exchange, removed == 0 ? 404 : 204, null);
+                    break;
+                default:
+                    send(exchange, 405, "Метод не поддерживается\n");
+            }
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage() + "\n", e);
+        } catch (IOException | RuntimeException e) {
+            // подробности — только в журнал: в них внутренние классы и пути к файлам
+            sendError(exchange, 500, "Внутренняя ошибка сервера\n", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+        int offset = parseInt(params.get("offset"), 0);
+        int limit = Math.min(MAX_LIMIT, parseInt(params.get("limit"), DEFAULT_LIMIT));
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("offset и limit не могут быть отрицательными");
+        }
+        Predicate<Task> filter = task -> true;
+        String tag = params.get("tag");
+        if (tag != null) {
+            filter = filter.and(task -> tag.equals(task.getTag()));
+        }
+        String completed = params.get("completed");
+        if (completed != null) {
+            boolean value = Boolean.parseBoolean(completed);
+            filter = filter.and(task -> task.isCompleted() == value);
+        }
+        // тот же разбор на слова и поиск по началу слов, что и в поле поиска окна
+        String[] queryTokens = TaskSearchIndex.tokenize(params.get("q"));
+        if (queryTokens.length > 0) {
+            filter = filter.and(task -> TaskSearchIndex.matches(task, queryTokens));
+        }
+
+        List<Task> tasks = repository.query(filter, offset, limit);
+        StringBuilder body = new StringBuilder(tasks.size() * 160);
+        for (Task task : tasks) {
+            TaskFormat.JSONL.append(body, task);
+        }
+        send(exchange, 200, body.toString());
+    }
+
+    private void create(HttpExchange exchange) throws IOException {
+        Task values = TaskFormat.JSONL.parse(readBody(exchange), 0);
+        Task created;
+        try {
+            created = onModelThread(() -> repository.add(values.getTitle(), values.getDescription(),
+                    values.getTag(), values.getDeadlineDay(), values.isCompleted()).copy());
+        } catch (IOException e) {
+            // id не выдан: файлы задач держит другой процесс
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, e.getMessage() + "\n");
+            return;
+        }
+        sendTask(exchange, 201, created);
+    }
+
+    private void replace(HttpExchange exchange, int id) throws IOException {
+        Task values = TaskFormat.JSONL.parse(readBody(exchange), id);
+        Task updated = onModelThread(() -> repository.replace(id, values));
+        sendTask(exchange, updated == null ? 404 : 200, updated);
+    }
+
+    // Выполняет изменение в потоке модели и ждёт результата.
+    private <T> T onModelThread(Callable<T> action) throws IOException {
+        FutureTask<T> future = new FutureTask<>(action);
+        modelExecutor.execute(future);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Запрос прерван", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY) {
+                throw new IllegalArgumentException("Слишком большой запрос");
+            }
+            return new String(body, StandardCharsets.UTF_8).trim();
+        }
+    }
+
+    private static void sendTask(HttpExchange exchange, int status, Task task) throws IOException {
+        if (task == null) {
+            send(exchange, status, "Задача не найдена\n");
+            return;
+        }
+        StringBuilder body = new StringBuilder(160);
+        TaskFormat.JSONL.append(body, task);
+        send(exchange, status, body.toString());
+    }
+
+    // Если ответ уже начат, код не поменять: соединение просто закрывается, ошибка — в журнал.
+    private static void sendError(HttpExchange exchange, int status, String body, Exception e) throws IOException {
+        if (status >= 500 || exchange.getResponseCode() != -1) {
+            LOG.log(Level.WARNING, exchange.getRequestMethod() + " " + exchange.getRequestURI(), e);
+        }
+        if (exchange.getResponseCode() == -1) {
+            send(exchange, status, body);
+        }
+    }
+
+    // body == null — ответ без тела.
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", status < 300 ? CONTENT_TYPE : "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверный id: " + text);
+        }
+    }
+
+    private static int parseInt(String text, int defaultValue) {
+        if (text == null || text.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверное число: " + text);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntFunction;
+
+// Сводка по списку: всего, выполнено, просрочено, на сегодня и задачи по тегам.
+// Считается целиком (параллельно, fork/join) при загрузке и при смене дня, когда
+// «просрочено» и «на сегодня» сдвигаются; в остальное время каждое изменение модели
+// только вычитает вклад задачи до изменения и прибавляет вклад после — O(1) на задачу.
+// Теги считаются по кодам TagDictionary. Используется из потока модели.
+class TaskStats implements TaskListModel.Listener {
+    // порция задач, которую fork/join не делит дальше
+    private static final int THRESHOLD = 8192;
+
+    // Счётчики для одного дня. Открытая задача с дедлайном раньше today просрочена.
+    static final class Counts {
+        final long today;
+        int total;
+        int completed;
+        int overdue;
+        int dueToday;
+        // по коду тега; код 0 — без тега
+        int[] byTag = new int[16];
+        int[] openByTag = new int[16];
+
+        Counts(long today) {
+            this.today = today;
+        }
+
+        int open() {
+            return total - completed;
+        }
+
+        int tagCount() {
+            return byTag.length;
+        }
+
+        void add(Task task, int sign) {
+            int tag = TagDictionary.code(task.getTag());
+            if (tag >= byTag.length) {
+                byTag = Arrays.copyOf(byTag, Math.max(tag + 1, byTag.length * 2));
+                openByTag = Arrays.copyOf(openByTag, byTag.length);
+            }
+            total += sign;
+            byTag[tag] += sign;
+            if (task.isCompleted()) {
+                completed += sign;
+                return;
+            }
+            openByTag[tag] += sign;
+            if (task.hasDeadline()) {
+                if (task.getDeadlineDay() < today) {
+                    overdue += sign;
+                } else if (task.getDeadlineDay() == today) {
+                    dueToday += sign;
+                }
+            }
+        }
+
+        Counts merge(Counts other) {
+            total += other.total;
+            completed += other.completed;
+            overdue += other.overdue;
+            dueToday += other.dueToday;
+            if (other.byTag.length > byTag.length) {
+                byTag = Arrays.copyOf(byTag, other.byTag.length);
+                openByTag = Arrays.copyOf(openByTag, other.byTag.length);
+            }
+            for (int i = 0; i < other.byTag.length; i++) {
+                byTag[i] += other.byTag[i];
+                openByTag[i] += other.openByTag[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Counts> {
+        private final IntFunction<Task> tasks;
+        private final int from;
+        private final int to;
+        private final long today;
+
+        CountTask(IntFunction<Task> tasks, int from, int to, long today) {
+            this.tasks = tasks;
+            this.from = from;
+            this.to = to;
+            this.today = today;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from <= THRESHOLD) {
+                Counts counts = new Counts(today);
+                for (int i = from; i < to; i++) {
+                    counts.add(tasks.apply(i), 1);
+                }
+                return counts;
+            }
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(tasks, from, middle, today);
+            left.fork();
+            Counts right = new CountTask(tasks, middle, to, today).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private Counts counts;
+    private final Runnable onChange;
+    private boolean inBatch;
+
+    // onChange вызывается после каждого изменения счётчиков (после пакета — один раз).
+    TaskStats(Counts counts, Runnable onChange) {
+        this.counts = counts;
+        this.onChange = onChange;
+    }
+
+    // Полный пересчёт; tasks читаются параллельно, поэтому список не должен меняться.
+    static Counts compute(IntFunction<Task> tasks, int size, long today) {
+        return ForkJoinPool.commonPool().invoke(new CountTask(tasks, 0, size, today));
+    }
+
+    static long today() {
+        return LocalDate.now().toEpochDay();
+    }
+
+    Counts getCounts() {
+        return counts;
+    }
+
+    // Наступил новый день: пересчитывает модель целиком. Вызывается в потоке модели,
+    // который на время пересчёта занят, поэтому модель не меняется.
+    boolean refreshIfDayChanged(TaskListModel model) {
+        long today = today();
+        if (today == counts.today) {
+            return false;
+        }
+        counts = compute(model::taskAt, model.getSize(), today);
+        onChange.run();
+        return true;
+    }
+
+    @Override
+    public void taskAdded(int index, Task task) {
+        counts.add(task, 1);
+        changed();
+    }
+
+    @Override
+    public void taskUpdating(int index, Task task) {
+        counts.add(task, -1);
+    }
+
+    @Override
+    public void taskUpdated(int index, Task task) {
+        counts.add(task, 1);
+        changed();
+    }
+
+    @Override
+    public void taskRemoved(int index, Task task) {
+        counts.add(task, -1);
+        changed();
+    }
+
+    @Override
+    public void batchStarted() {
+        inBatch = true;
+    }
+
+    @Override
+    public void batchFinished() {
+        inBatch = false;
+        onChange.run();
+    }
+
+    private void changed() {
+        if (!inBatch) {
+            onChange.run();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Задачи списка столбцами: по массиву на поле вместо объекта Task на строку.
+// Строки идут по возрастанию id. Время хранится в миллисекундах, флаги упакованы
+// в байт, тег — код из TagDictionary; строки заголовка и описания общие с задачами,
+// из которых строки записаны. Task по строке собирается только по запросу (get).
+//
+// Строку по id находит хеш-индекс rows: открытая адресация по IntHashMap.mix, в ячейке
+// номер строки + 1 (0 — пусто), а сам id берётся из столбца ids. Добавление в конец
+// дописывает в индекс одну строку; вставка в середину и удаление сдвигают строки
+// за один проход по таблице и за такой же проход строят индекс заново.
+final class TaskTable {
+    private static final byte COMPLETED = 1;
+
+    private int size;
+    private int[] ids;
+    private byte[] flags;
+    private long[] createdAt;
+    private long[] completedAt;
+    private int[] deadlineDays;
+    private int[] tagCodes;
+    private String[] titles;
+    private String[] descriptions;
+    private int[] rows;
+
+    TaskTable(int capacity) {
+        capacity = Math.max(16, capacity);
+        ids = new int[capacity];
+        flags = new byte[capacity];
+        createdAt = new long[capacity];
+        completedAt = new long[capacity];
+        deadlineDays = new int[capacity];
+        tagCodes = new int[capacity];
+        titles = new String[capacity];
+        descriptions = new String[capacity];
+        rows = new int[indexLength(capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    int id(int row) {
+        return ids[row];
+    }
+
+    boolean isCompleted(int row) {
+        return (flags[row] & COMPLETED) != 0;
+    }
+
+    long completedAt(int row) {
+        return completedAt[row];
+    }
+
+    // Новый объект задачи со значениями строки; его изменения в таблицу не попадают, пока не вызван set.
+    Task get(int row) {
+        if (row >= size) {
+            throw new IndexOutOfBoundsException("Index: " + row + ", Size: " + size);
+        }
+        return new Task(ids[row], titles[row], descriptions[row], TagDictionary.tag(tagCodes[row]),
+                deadlineDays[row], (flags[row] & COMPLETED) != 0, createdAt[row], completedAt[row]);
+    }
+
+    // Записывает поля задачи в строку; id строки не меняется.
+    void set(int row, Task task) {
+        flags[row] = task.isCompleted() ? COMPLETED : 0;
+        createdAt[row] = task.getCreatedAtMillis();
+        completedAt[row] = task.getCompletedAtMillis();
+        deadlineDays[row] = task.getDeadlineDay();
+        tagCodes[row] = TagDictionary.code(task.getTag());
+        titles[row] = task.getTitle();
+        descriptions[row] = task.getDescription();
+    }
+
+    void insert(int row, Task task) {
+        ensureCapacity(size + 1);
+        if (row < size) {
+            shift(row, row + 1, size - row);
+        }
+        ids[row] = task.getId();
+        set(row, task);
+        size++;
+        if (row == size - 1) {
+            index(row);
+        } else {
+            reindex();
+        }
+    }
+
+    // Задачи уже идут по возрастанию id и после всех строк таблицы.
+    void addAll(List<Task> tasks) {
+        ensureCapacity(size + tasks.size());
+        for (Task task : tasks) {
+            ids[size] = task.getId();
+            set(size, task);
+            index(size++);
+        }
+    }
+
+    void remove(int row) {
+        shift(row + 1, row, size - row - 1);
+        size--;
+        titles[size] = null;
+        descriptions[size] = null;
+        reindex();
+    }
+
+    // Удаляет строки за один проход; rows отсортированы по возрастанию.
+    void removeAll(int[] rows) {
+        if (rows.length == 0) {
+            return;
+        }
+        int write = rows[0];
+        for (int next = 0; next < rows.length; next++) {
+            int from = rows[next] + 1;
+            int to = next + 1 < rows.length ? rows[next + 1] : size;
+            shift(from, write, to - from);
+            write += to - from;
+        }
+        Arrays.fill(titles, write, size, null);
+        Arrays.fill(descriptions, write, size, null);
+        size = write;
+        reindex();
+    }
+
+    // Номер строки с этим id или -1.
+    int indexOf(int id) {
+        int mask = rows.length - 1;
+        for (int slot = IntHashMap.mix(id) & mask; rows[slot] != 0; slot = (slot + 1) & mask) {
+            int row = rows[slot] - 1;
+            if (ids[row] == id) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    // Номер первой строки с id больше данного или размер таблицы.
+    int indexAfter(int id) {
+        int row = Arrays.binarySearch(ids, 0, size, id);
+        return row >= 0 ? row + 1 : -(row + 1);
+    }
+
+    // Индекс заполнен не больше чем наполовину.
+    private static int indexLength(int capacity) {
+        return Integer.highestOneBit(Math.max(16, capacity * 2) - 1) << 1;
+    }
+
+    private void index(int row) {
+        if (2 * size > rows.length) {
+            reindex();
+            return;
+        }
+        int mask = rows.length - 1;
+        int slot = IntHashMap.mix(ids[row]) & mask;
+        while (rows[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        rows[slot] = row + 1;
+    }
+
+    private void reindex() {
+        int length = indexLength(size);
+        if (length == rows.length) {
+            Arrays.fill(rows, 0);
+        } else {
+            rows = new int[length];
+        }
+        int mask = length - 1;
+        for (int row = 0; row < size; row++) {
+            int slot = IntHashMap.mix(ids[row]) & mask;
+            while (rows[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rows[slot] = row + 1;
+        }
+    }
+
+    private void shift(int from, int to, int length) {
+        System.arraycopy(ids, from, ids, to, length);
+        System.arraycopy(flags, from, flags, to, length);
+        System.arraycopy(createdAt, from, createdAt, to, length);
+        System.arraycopy(completedAt, from, completedAt, to, length);
+        System.arraycopy(deadlineDays, from, deadlineDays, to, length);
+        System.arraycopy(tagCodes, from, tagCodes, to, length);
+        System.arraycopy(titles, from, titles, to, length);
+        System.arraycopy(descriptions, from, descriptions, to, length);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        capacity = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        completedAt = Arrays.copyOf(completedAt, capacity);
+        deadlineDays = Arrays.copyOf(deadlineDays, capacity);
+        tagCodes = Arrays.copyOf(tagCodes, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+    }
+}
@@ -1,11 +1,21 @@
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalTime;
+import java.time.YearMonth;
 
 class DatePickerPanel extends JPanel {
     private JComboBox<Integer> dayCombo;
@@ -45,51 +55,35 @@ class DatePickerPanel extends JPanel {
         add(yearCombo);
     }
     
-    public String getDate() {
+    public int getDeadlineDay() {
         int day = (Integer) dayCombo.getSelectedItem();
         int month = monthCombo.getSelectedIndex() + 1;
         int year = (Integer) yearCombo.getSelectedItem();
         
-        try {
-            LocalDate date = LocalDate.of(year, month, day);
-            return date.format(DateTimeFormatter.ofPattern("dd.MM.yyyy"));
-        } catch (Exception e) {
-            return "";
+        if (day > YearMonth.of(year, month).lengthOfMonth()) {
+            return Task.NO_DEADLINE;
         }
+        return (int) LocalDate.of(year, month, day).toEpochDay();
     }
     
-    public void setDate(String dateStr) {
-        if (dateStr == null || dateStr.isEmpty()) {
+    public void setDeadlineDay(int deadlineDay) {
+        if (deadlineDay == Task.NO_DEADLINE) {
             setToToday();
             return;
         }
         
-        try {
-            DateTimeFormatter[] formatters = {
-                DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                DateTimeFormatter.ofPattern("dd.MM.yy"),
-                DateTimeFormatter.ofPattern("dd.MM")
-            };
-            
-            LocalDate date = null;
-            for (DateTimeFormatter formatter : formatters) {
-                try {
-                    date = LocalDate.parse(dateStr, formatter);
-                    break;
-                } catch (Exception e) {
-                }
-            }
-            
-            if (date != null) {
-                dayCombo.setSelectedItem(date.getDayOfMonth());
-                monthCombo.setSelectedIndex(date.getMonthValue() - 1);
-                yearCombo.setSelectedItem(date.getYear());
-            } else {
-                setToToday();
-            }
-        } catch (Exception e) {
-            setToToday();
+        LocalDate date = LocalDate.ofEpochDay(deadlineDay);
+        int firstYear = yearCombo.getItemAt(0);
+        int lastYear = yearCombo.getItemAt(yearCombo.getItemCount() - 1);
+        for (int year = firstYear - 1; year >= date.getYear(); year--) {
+            yearCombo.insertItemAt(year, 0);
+        }
+        for (int year = lastYear + 1; year <= date.getYear(); year++) {
+            yearCombo.addItem(year);
         }
+        dayCombo.setSelectedItem(date.getDayOfMonth());
+        monthCombo.setSelectedIndex(date.getMonthValue() - 1);
+        yearCombo.setSelectedItem(date.getYear());
     }
     
     public void setToToday() {
@@ -100,16 +94,104 @@ class DatePickerPanel extends JPanel {
     }
 }
 
+// Рендерер строк списка. Жирный и курсивный шрифты выводятся один раз
+// для текущего шрифта списка, а текст строки кешируется в самой задаче,
+// поэтому отрисовка строки ничего не выделяет в куче.
+class TaskCellRenderer extends DefaultListCellRenderer {
+    static final Task PROTOTYPE = new Task(0, "Прототип строки списка задач", "", "", Task.NO_DEADLINE);
+
+    private final Color selectedBackground;
+    private final Color openForeground;
+    private Font baseFont;
+    private Font boldFont;
+    private Font italicFont;
+
+    TaskCellRenderer(Color selectedBackground, Color openForeground) {
+        this.selectedBackground = selectedBackground;
+        this.openForeground = openForeground;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<?> list, Object value, int index, 
+                                                boolean isSelected, boolean cellHasFocus) {
+        Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+        
+        if (value instanceof Task) {
+            Task task = (Task) value;
+            Font font = list.getFont();
+            if (font != baseFont) {
+                baseFont = font;
+                boldFont = font.deriveFont(Font.BOLD);
+                italicFont = font.deriveFont(Font.ITALIC);
+            }
+            
+            if (task.isCompleted()) {
+                setFont(italicFont);
+                setForeground(Color.GRAY);
+            } else {
+                setFont(boldFont);
+                setForeground(openForeground);
+            }
+            
+            if (isSelected) {
+                setBackground(selectedBackground);
+                setForeground(Color.WHITE);
+            }
+        }
+        
+        return c;
+    }
+}
+
 public class TodoApp extends JFrame {
-    private DefaultListModel<Task> listModel;
+    private TaskListModel listModel;
     private JList<Task> taskList;
     private JTextField titleField;
     private JTextArea descriptionArea;
     private JComboBox<String> tagComboBox;
     private DatePickerPanel datePicker;
-    private JButton addButton, deleteButton, completeButton, editButton;
-    private List<Task> tasks;
-    private static final String SAVE_FILE = "tasks.dat";
+    private JButton addButton, deleteButton, completeButton, editButton, retagButton, moveDeadlineButton, archiveButton;
+    private final List<JCheckBox> tagFilterBoxes = new ArrayList<>();
+    private JComboBox<String> statusFilterComboBox;
+    private JTextField searchField;
+    private JComboBox<String> viewComboBox;
+    private int periodFromDay;
+    private int periodToDay;
+    private final Map<TaskOrderIndex.KeyFunction, TaskOrderIndex> orderIndexes = new HashMap<>();
+    private Timer searchTimer;
+    private TaskBitmapIndex bitmapIndex;
+    private TaskSearchIndex searchIndex;
+    private FilteredTaskListModel filteredModel;
+    private static final String[] TAGS = {"", "🏠 Дом", "💼 Работа", "🎓 Учеба", "🛒 Покупки", "🏥 Здоровье", "✈️ Путешествие", "🎉 Развлечение"};
+    private static final String[] VIEWS = {"По порядку", "По дедлайну", "По дате создания", "По выполнению",
+        "Просроченные", "На 7 дней", "Период..."};
+    private static final int DUE_SOON_DAYS = 7;
+    private static final long SAVE_INTERVAL_MS = Long.getLong("todo.saveIntervalMs", 500);
+    private final TaskRepository repository = new TaskRepository(new File(TaskRepository.SNAPSHOT_FILE),
+        new File(TaskRepository.LOG_FILE), SAVE_INTERVAL_MS, this::showSaveError);
+    private PagedTaskStore pagedStore;
+    private JProgressBar loadProgress;
+    private boolean loaded;
+    private static final int LOAD_CHUNK = 10_000;
+    // 0 — локальный HTTP-сервер (см. TaskServer) не запускается
+    private static final int HTTP_PORT = Integer.getInteger("todo.httpPort", 0);
+    private TaskServer server;
+    // выполненные задачи старше стольких дней уходят в архив; 0 — не архивировать
+    private static final int ARCHIVE_AFTER_DAYS = Integer.getInteger("todo.archiveAfterDays", 30);
+    private static final int ARCHIVE_CHECK_MS = 60 * 60 * 1000;
+    private Timer archiveTimer;
+    private TaskStats stats;
+    private JLabel statsLabel;
+    // раз в минуту проверяется, не наступил ли новый день
+    private static final int DAY_CHECK_MS = 60 * 1000;
+    private Timer dayTimer;
+    // строка под списком, пока изменения не удаётся записать; проверяется раз в секунду
+    private JLabel saveStatusLabel;
+    private static final int SAVE_STATUS_MS = 1000;
+    private Timer saveStatusTimer;
+    private static final LocalTime REMINDER_TIME = LocalTime.of(Integer.getInteger("todo.reminderHour", 9), 0);
+    private final ReminderScheduler reminders = new ReminderScheduler(REMINDER_TIME, this::showReminder);
+    private static final int MAX_REMINDER_LINES = 20;
     
     private final Color PINK_BACKGROUND = new Color(255, 240, 245);
     private final Color PINK_BUTTON = new Color(255, 182, 193);
@@ -117,11 +199,15 @@ public class TodoApp extends JFrame {
     private final Color PINK_BORDER = new Color(219, 112, 147);
     private final Color DARK_PINK = new Color(199, 21, 133); // Исправлено: DARK_PINK_TEXT на DARK_PINK
 
+    // Окно строится сразу, а задачи загружаются в фоне (см. TaskLoader).
+    // Пока журнал пуст, снимок до конца загрузки показывается постранично прямо с диска.
     public TodoApp() {
-        tasks = new ArrayList<>();
-        loadTasks();
+        pagedStore = repository.openPaged();
+        listModel = new TaskListModel(new ArrayList<>(), 1);
         initializeUI();
         setupListeners();
+        setActionsEnabled(false);
+        new TaskLoader().execute();
     }
 
     private void initializeUI() {
@@ -131,39 +217,25 @@ public class TodoApp extends JFrame {
         setLocationRelativeTo(null);
         getContentPane().setBackground(PINK_BACKGROUND);
 
-        listModel = new DefaultListModel<>();
-        updateListModel();
-        
-        taskList = new JList<>(listModel);
+        // время отрисовки видимых строк списка идёт в гистограмму render
+        taskList = new JList<Task>() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                long start = System.nanoTime();
+                super.paintComponent(g);
+                TaskMetrics.INSTANCE.render.recordSince(start);
+                TaskMetrics.INSTANCE.firstPaint();
+            }
+        };
+        taskList.setModel(pagedStore != null ? new PagedTaskListModel(pagedStore) : listModel);
         taskList.setBackground(Color.WHITE);
+        taskList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         taskList.setSelectionBackground(PINK_BUTTON);
         taskList.setSelectionForeground(Color.WHITE);
-        taskList.setCellRenderer(new DefaultListCellRenderer() {
-            @Override
-            public Component getListCellRendererComponent(JList<?> list, Object value, int index, 
-                                                        boolean isSelected, boolean cellHasFocus) {
-                Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-                
-                if (value instanceof Task) {
-                    Task task = (Task) value;
-                    
-                    if (task.isCompleted()) {
-                        setFont(getFont().deriveFont(Font.ITALIC));
-                        setForeground(Color.GRAY);
-                    } else {
-                        setFont(getFont().deriveFont(Font.BOLD));
-                        setForeground(DARK_PINK); // Исправлено: теперь использует DARK_PINK
-                    }
-                    
-                    if (isSelected) {
-                        setBackground(PINK_BUTTON);
-                        setForeground(Color.WHITE);
-                    }
-                }
-                
-                return c;
-            }
-        });
+        taskList.setCellRenderer(new TaskCellRenderer(PINK_BUTTON, DARK_PINK));
+
+        // без фиксированного размера строки JList измеряет каждую строку модели
+        taskList.setPrototypeCellValue(TaskCellRenderer.PROTOTYPE);
 
         titleField = new JTextField(20);
         styleTextField(titleField);
@@ -178,8 +250,7 @@ public class TodoApp extends JFrame {
             BorderFactory.createEmptyBorder(5, 5, 5, 5)
         ));
 
-        String[] defaultTags = {"", "🏠 Дом", "💼 Работа", "🎓 Учеба", "🛒 Покупки", "🏥 Здоровье", "✈️ Путешествие", "🎉 Развлечение"};
-        tagComboBox = new JComboBox<>(defaultTags);
+        tagComboBox = new JComboBox<>(TAGS);
         styleComboBox(tagComboBox);
 
         datePicker = new DatePickerPanel();
@@ -188,10 +259,38 @@ public class TodoApp extends JFrame {
         deleteButton = createPinkButton("Удалить");
         completeButton = createPinkButton("Выполнено");
         editButton = createPinkButton("Редактировать");
+        retagButton = createPinkButton("Тег...");
+        moveDeadlineButton = createPinkButton("Перенести...");
+        archiveButton = createPinkButton("Архив...");
 
         JPanel inputPanel = createInputPanel();
         JPanel controlPanel = createControlPanel();
 
+        JPanel listPanel = new JPanel(new BorderLayout());
+        listPanel.setBackground(PINK_BACKGROUND);
+        listPanel.add(createFilterPanel(), BorderLayout.NORTH);
+        listPanel.add(new JScrollPane(taskList), BorderLayout.CENTER);
+
+        loadProgress = new JProgressBar();
+        loadProgress.setIndeterminate(true);
+        loadProgress.setStringPainted(true);
+        loadProgress.setString("Загрузка задач...");
+        loadProgress.setForeground(PINK_BUTTON_HOVER);
+        statsLabel = new JLabel(" ");
+        statsLabel.setForeground(DARK_PINK);
+        statsLabel.setToolTipText("По тегам: открытые / все задачи");
+        statsLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.setBackground(PINK_BACKGROUND);
+        statusPanel.add(loadProgress, BorderLayout.NORTH);
+        statusPanel.add(statsLabel, BorderLayout.SOUTH);
+        saveStatusLabel = new JLabel();
+        saveStatusLabel.setForeground(Color.RED);
+        saveStatusLabel.setBorder(BorderFactory.createEmptyBorder(4, 6, 0, 6));
+        saveStatusLabel.setVisible(false);
+        statusPanel.add(saveStatusLabel, BorderLayout.CENTER);
+        listPanel.add(statusPanel, BorderLayout.SOUTH);
+
         JLabel titleLabelMain = new JLabel("Мои Задачи", JLabel.CENTER);
         titleLabelMain.setFont(titleLabelMain.getFont().deriveFont(Font.BOLD, 20));
         titleLabelMain.setForeground(DARK_PINK);
@@ -202,7 +301,7 @@ public class TodoApp extends JFrame {
         setLayout(new BorderLayout());
         add(titleLabelMain, BorderLayout.NORTH);
         add(inputPanel, BorderLayout.NORTH);
-        add(new JScrollPane(taskList), BorderLayout.CENTER);
+        add(listPanel, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.SOUTH);
     }
 
@@ -253,6 +352,75 @@ public class TodoApp extends JFrame {
         return inputPanel;
     }
 
+    private JPanel createFilterPanel() {
+        JPanel filterPanel = new JPanel(new BorderLayout(10, 5));
+        filterPanel.setBackground(PINK_BACKGROUND);
+        filterPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 5, 10));
+        JLabel filterLabel = new JLabel("Фильтр:");
+        filterLabel.setForeground(DARK_PINK);
+        filterLabel.setFont(filterLabel.getFont().deriveFont(Font.BOLD));
+        filterPanel.add(filterLabel, BorderLayout.WEST);
+
+        JPanel tagsPanel = new JPanel(new GridLayout(0, 4));
+        tagsPanel.setBackground(PINK_BACKGROUND);
+        for (int i = 1; i < TAGS.length; i++) {
+            JCheckBox box = new JCheckBox(TAGS[i]);
+            box.setBackground(PINK_BACKGROUND);
+            box.setForeground(DARK_PINK);
+            box.addActionListener(e -> applyFilter());
+            tagFilterBoxes.add(box);
+            tagsPanel.add(box);
+        }
+        filterPanel.add(tagsPanel, BorderLayout.CENTER);
+
+        statusFilterComboBox = new JComboBox<>(new String[]{"Все", "Открытые", "Выполненные"});
+        styleComboBox(statusFilterComboBox);
+        statusFilterComboBox.addActionListener(e -> applyFilter());
+        filterPanel.add(statusFilterComboBox, BorderLayout.EAST);
+
+        JPanel searchPanel = new JPanel(new BorderLayout(10, 0));
+        searchPanel.setBackground(PINK_BACKGROUND);
+        JLabel searchLabel = new JLabel("Поиск:");
+        searchLabel.setForeground(DARK_PINK);
+        searchLabel.setFont(searchLabel.getFont().deriveFont(Font.BOLD));
+        searchField = new JTextField(20);
+        styleTextField(searchField);
+        // фильтруем, когда пользователь перестал печатать, а не на каждую букву
+        searchTimer = new Timer(200, e -> applyFilter());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
+        searchPanel.add(searchLabel, BorderLayout.WEST);
+        searchPanel.add(searchField, BorderLayout.CENTER);
+
+        viewComboBox = new JComboBox<>(VIEWS);
+        styleComboBox(viewComboBox);
+        viewComboBox.addActionListener(e -> {
+            if (viewComboBox.getSelectedIndex() == VIEWS.length - 1 && !choosePeriod()) {
+                viewComboBox.setSelectedIndex(0);
+            } else {
+                applyFilter();
+            }
+        });
+        searchPanel.add(viewComboBox, BorderLayout.EAST);
+        filterPanel.add(searchPanel, BorderLayout.SOUTH);
+        return filterPanel;
+    }
+
     private JPanel createControlPanel() {
         JPanel controlPanel = new JPanel(new FlowLayout());
         controlPanel.setBackground(PINK_BACKGROUND);
@@ -260,6 +428,9 @@ public class TodoApp extends JFrame {
         controlPanel.add(deleteButton);
         controlPanel.add(completeButton);
         controlPanel.add(editButton);
+        controlPanel.add(retagButton);
+        controlPanel.add(moveDeadlineButton);
+        controlPanel.add(archiveButton);
         return controlPanel;
     }
 
@@ -311,13 +482,29 @@ public class TodoApp extends JFrame {
         deleteButton.addActionListener(e -> deleteTask());
         completeButton.addActionListener(e -> toggleTaskCompletion());
         editButton.addActionListener(e -> editTask());
+        retagButton.addActionListener(e -> retagTasks());
+        moveDeadlineButton.addActionListener(e -> moveDeadlines());
+        archiveButton.addActionListener(e -> showArchive());
 
         titleField.addActionListener(e -> addTask());
 
         addWindowListener(new WindowAdapter() {
             @Override
             public void windowClosing(WindowEvent e) {
-                saveTasks();
+                reminders.shutdown();
+                if (archiveTimer != null) {
+                    archiveTimer.stop();
+                }
+                if (dayTimer != null) {
+                    dayTimer.stop();
+                }
+                if (saveStatusTimer != null) {
+                    saveStatusTimer.stop();
+                }
+                if (server != null) {
+                    server.close();
+                }
+                repository.close();
             }
         });
 
@@ -341,18 +528,25 @@ public class TodoApp extends JFrame {
     }
 
     private void addTask() {
+        if (!requireLoaded()) {
+            return;
+        }
         String title = titleField.getText().trim();
         String description = descriptionArea.getText().trim();
         String tag = (String) tagComboBox.getSelectedItem();
-        String deadline = datePicker.getDate();
+        int deadline = datePicker.getDeadlineDay();
         
         if (!title.isEmpty()) {
-            Task task = new Task(tasks.size() + 1, title, description, tag, deadline);
-            tasks.add(task);
-            updateListModel();
+            try {
+                repository.add(title, description, tag, deadline);
+            } catch (IOException e) {
+                // поля не очищаются: задачу можно добавить ещё раз
+                JOptionPane.showMessageDialog(this, "Не удалось добавить задачу: " + e.getMessage(),
+                    "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             clearInputFields();
             titleField.requestFocus();
-            saveTasks();
         } else {
             JOptionPane.showMessageDialog(this, "Введите заголовок задачи!", "Внимание", JOptionPane.WARNING_MESSAGE);
         }
@@ -366,52 +560,108 @@ public class TodoApp extends JFrame {
     }
 
     private void deleteTask() {
-        int selectedIndex = taskList.getSelectedIndex();
-        if (selectedIndex != -1) {
+        if (!requireLoaded()) {
+            return;
+        }
+        int[] ids = selectedTaskIds();
+        if (ids.length > 0) {
+            String question = ids.length == 1 ? "Удалить выбранную задачу?"
+                : "Удалить выбранные задачи (" + ids.length + ")?";
             int result = JOptionPane.showConfirmDialog(this, 
-                "Удалить выбранную задачу?", "Подтверждение удаления", 
+                question, "Подтверждение удаления", 
                 JOptionPane.YES_NO_OPTION);
             if (result == JOptionPane.YES_OPTION) {
-                tasks.remove(selectedIndex);
-                updateTaskIds();
-                updateListModel();
-                saveTasks();
+                taskList.clearSelection();
+                repository.removeAll(ids);
             }
         } else {
             JOptionPane.showMessageDialog(this, "Выберите задачу для удаления!", "Информация", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
+    // Если среди выбранных есть невыполненные, все отмечаются выполненными, иначе — снова открытыми.
     private void toggleTaskCompletion() {
-        int selectedIndex = taskList.getSelectedIndex();
-        if (selectedIndex != -1) {
-            Task task = tasks.get(selectedIndex);
-            task.setCompleted(!task.isCompleted());
-            taskList.repaint();
-            saveTasks();
+        if (!requireLoaded()) {
+            return;
+        }
+        List<Task> selected = taskList.getSelectedValuesList();
+        if (!selected.isEmpty()) {
+            boolean complete = false;
+            for (Task task : selected) {
+                complete |= !task.isCompleted();
+            }
+            repository.setCompleted(selectedTaskIds(), complete);
         } else {
             JOptionPane.showMessageDialog(this, "Выберите задачу!", "Информация", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
+    private void retagTasks() {
+        if (!requireLoaded()) {
+            return;
+        }
+        int[] ids = selectedTaskIds();
+        if (ids.length == 0) {
+            JOptionPane.showMessageDialog(this, "Выберите задачи!", "Информация", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JComboBox<String> tagBox = new JComboBox<>(TAGS);
+        int result = JOptionPane.showConfirmDialog(this, tagBox,
+            "Тег для выбранных задач (" + ids.length + ")", JOptionPane.OK_CANCEL_OPTION);
+        if (result == JOptionPane.OK_OPTION) {
+            repository.setTag(ids, (String) tagBox.getSelectedItem());
+        }
+    }
+
+    private void moveDeadlines() {
+        if (!requireLoaded()) {
+            return;
+        }
+        int[] ids = selectedTaskIds();
+        if (ids.length == 0) {
+            JOptionPane.showMessageDialog(this, "Выберите задачи!", "Информация", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        JSpinner daysSpinner = new JSpinner(new SpinnerNumberModel(1, -365, 365, 1));
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        panel.add(new JLabel("Сдвинуть дедлайн на"));
+        panel.add(daysSpinner);
+        panel.add(new JLabel("дн."));
+        int result = JOptionPane.showConfirmDialog(this, panel,
+            "Перенос дедлайна (" + ids.length + ")", JOptionPane.OK_CANCEL_OPTION);
+        int days = (Integer) daysSpinner.getValue();
+        if (result == JOptionPane.OK_OPTION && days != 0) {
+            repository.moveDeadlines(ids, days);
+        }
+    }
+
+    private int[] selectedTaskIds() {
+        List<Task> selected = taskList.getSelectedValuesList();
+        int[] ids = new int[selected.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = selected.get(i).getId();
+        }
+        return ids;
+    }
+
     private void editTask() {
-        int selectedIndex = taskList.getSelectedIndex();
-        if (selectedIndex != -1) {
-            Task task = tasks.get(selectedIndex);
-            
+        if (!requireLoaded()) {
+            return;
+        }
+        Task task = taskList.getSelectedValue();
+        if (task != null) {
             JTextField editTitleField = new JTextField(task.getTitle(), 20);
             JTextArea editDescArea = new JTextArea(task.getDescription(), 3, 20);
             editDescArea.setLineWrap(true);
             editDescArea.setWrapStyleWord(true);
             
-            String[] tags = {"", "🏠 Дом", "💼 Работа", "🎓 Учеба", "🛒 Покупки", "🏥 Здоровье", "✈️ Путешествие", "🎉 Развлечение"};
-            JComboBox<String> editTagComboBox = new JComboBox<>(tags);
+            JComboBox<String> editTagComboBox = new JComboBox<>(TAGS);
             if (task.getTag() != null) {
                 editTagComboBox.setSelectedItem(task.getTag());
             }
             
             DatePickerPanel editDatePicker = new DatePickerPanel();
-            editDatePicker.setDate(task.getDeadline());
+            editDatePicker.setDeadlineDay(task.getDeadlineDay());
             
             JPanel panel = new JPanel(new BorderLayout(10, 10));
             
@@ -436,12 +686,8 @@ public class TodoApp extends JFrame {
             if (result == JOptionPane.OK_OPTION) {
                 String newTitle = editTitleField.getText().trim();
                 if (!newTitle.isEmpty()) {
-                    task.setTitle(newTitle);
-                    task.setDescription(editDescArea.getText().trim());
-                    task.setTag((String) editTagComboBox.getSelectedItem());
-                    task.setDeadline(editDatePicker.getDate());
-                    updateListModel();
-                    saveTasks();
+                    repository.update(task.getId(), newTitle, editDescArea.getText().trim(),
+                        (String) editTagComboBox.getSelectedItem(), editDatePicker.getDeadlineDay());
                 } else {
                     JOptionPane.showMessageDialog(this, "Заголовок не может быть пустым!", "Ошибка", JOptionPane.ERROR_MESSAGE);
                 }
@@ -451,39 +697,430 @@ public class TodoApp extends JFrame {
         }
     }
 
-    private void updateTaskIds() {
-        for (int i = 0; i < tasks.size(); i++) {
-            tasks.get(i).setId(i + 1);
+    private void applyFilter() {
+        if (!loaded) {
+            // фильтр применится, когда загрузка закончится
+            return;
+        }
+        Set<String> tags = new HashSet<>();
+        for (JCheckBox box : tagFilterBoxes) {
+            if (box.isSelected()) {
+                tags.add(box.getText());
+            }
         }
+        int status = statusFilterComboBox.getSelectedIndex();
+        Boolean completed = status == 0 ? null : status == 2;
+
+        TaskOrderIndex order = null;
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        long today = LocalDate.now().toEpochDay();
+        switch (viewComboBox.getSelectedIndex()) {
+            case 1:
+                order = orderIndex(TaskOrderIndex.BY_DEADLINE);
+                break;
+            case 2:
+                order = orderIndex(TaskOrderIndex.BY_CREATED_AT);
+                break;
+            case 3:
+                order = orderIndex(TaskOrderIndex.BY_COMPLETION);
+                break;
+            case 4:
+                order = orderIndex(TaskOrderIndex.BY_DEADLINE);
+                to = today - 1;
+                completed = Boolean.FALSE;
+                break;
+            case 5:
+                order = orderIndex(TaskOrderIndex.BY_DEADLINE);
+                from = today;
+                to = today + DUE_SOON_DAYS - 1;
+                completed = Boolean.FALSE;
+                break;
+            case 6:
+                order = orderIndex(TaskOrderIndex.BY_DEADLINE);
+                from = periodFromDay;
+                to = periodToDay;
+                break;
+            default:
+                break;
+        }
+        long start = System.nanoTime();
+        filteredModel.setFilter(tags, completed, searchField.getText(), order, from, to);
+        taskList.setModel(filteredModel.isActive() ? filteredModel : listModel);
+        TaskMetrics.INSTANCE.rebuild.recordSince(start);
+    }
+
+    // Индекс порядка строится при первом выборе такого вида.
+    private TaskOrderIndex orderIndex(TaskOrderIndex.KeyFunction keyFunction) {
+        TaskOrderIndex index = orderIndexes.get(keyFunction);
+        if (index == null) {
+            index = new TaskOrderIndex(listModel, keyFunction);
+            listModel.addTaskListener(index);
+            orderIndexes.put(keyFunction, index);
+        }
+        return index;
     }
 
-    private void updateListModel() {
-        listModel.clear();
-        for (Task task : tasks) {
-            listModel.addElement(task);
+    private boolean choosePeriod() {
+        DatePickerPanel fromPicker = new DatePickerPanel();
+        DatePickerPanel toPicker = new DatePickerPanel();
+        JPanel panel = new JPanel(new GridLayout(2, 2, 10, 10));
+        panel.add(new JLabel("С:"));
+        panel.add(fromPicker);
+        panel.add(new JLabel("По:"));
+        panel.add(toPicker);
+
+        int result = JOptionPane.showConfirmDialog(this, panel, "Период", JOptionPane.OK_CANCEL_OPTION);
+        if (result != JOptionPane.OK_OPTION) {
+            return false;
         }
+        periodFromDay = fromPicker.getDeadlineDay();
+        periodToDay = toPicker.getDeadlineDay();
+        if (periodFromDay == Task.NO_DEADLINE || periodToDay == Task.NO_DEADLINE || periodFromDay > periodToDay) {
+            JOptionPane.showMessageDialog(this, "Неверный период!", "Ошибка", JOptionPane.ERROR_MESSAGE);
+            return false;
+        }
+        return true;
     }
 
-    @SuppressWarnings("unchecked")
-    private void loadTasks() {
-        File file = new File(SAVE_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(SAVE_FILE))) {
-                tasks = (List<Task>) ois.readObject();
-            } catch (IOException | ClassNotFoundException e) {
-                tasks = new ArrayList<>();
+    // Фоновая загрузка: журнал читается, задачи порциями добавляются в модель
+    // списка, затем строятся индексы и напоминания. Окно всё это время отвечает,
+    // а кнопки изменения включаются только в done(), когда модель полная.
+    private class TaskLoader extends SwingWorker<Void, List<Task>> {
+        private TaskBitmapIndex loadedBitmapIndex;
+        private TaskSearchIndex loadedSearchIndex;
+        private TaskStats.Counts loadedCounts;
+
+        TaskLoader() {
+            addPropertyChangeListener(e -> {
+                if ("progress".equals(e.getPropertyName())) {
+                    loadProgress.setIndeterminate(false);
+                    loadProgress.setValue(getProgress());
+                    loadProgress.setString(getProgress() < 100 ? "Загрузка задач... " + getProgress() + "%"
+                        : "Построение индексов...");
+                }
+            });
+        }
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            // JMX регистрируется здесь, чтобы не задерживать первое окно
+            TaskMetrics.INSTANCE.register();
+            List<Task> tasks = repository.loadTasks();
+            for (int from = 0; from < tasks.size(); from += LOAD_CHUNK) {
+                int to = Math.min(tasks.size(), from + LOAD_CHUNK);
+                publish(tasks.subList(from, to));
+                setProgress((int) (99L * to / tasks.size()));
             }
+            setProgress(100);
+            loadedBitmapIndex = new TaskBitmapIndex(tasks);
+            loadedSearchIndex = new TaskSearchIndex(tasks);
+            loadedCounts = TaskStats.compute(tasks::get, tasks.size(), TaskStats.today());
+            reminders.scheduleAll(tasks);
+            return null;
+        }
+
+        @Override
+        protected void process(List<List<Task>> chunks) {
+            for (List<Task> chunk : chunks) {
+                listModel.appendLoaded(chunk);
+            }
+        }
+
+        @Override
+        protected void done() {
+            try {
+                get();
+            } catch (InterruptedException | ExecutionException e) {
+                loadProgress.setIndeterminate(false);
+                loadProgress.setString("Ошибка загрузки");
+                // изменения остаются выключенными: файл задач не трогается, пока его не починят
+                JOptionPane.showMessageDialog(TodoApp.this, "Не удалось загрузить задачи: " + e.getCause()
+                    + "\nФайл задач не изменён, изменения отключены.", "Ошибка", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            repository.attach(listModel);
+            bitmapIndex = loadedBitmapIndex;
+            listModel.addTaskListener(bitmapIndex);
+            searchIndex = loadedSearchIndex;
+            listModel.addTaskListener(searchIndex);
+            filteredModel = new FilteredTaskListModel(listModel, bitmapIndex, searchIndex);
+            listModel.addTaskListener(filteredModel);
+            listModel.addTaskListener(reminders);
+            stats = new TaskStats(loadedCounts, TodoApp.this::showStats);
+            listModel.addTaskListener(stats);
+            showStats();
+            dayTimer = new Timer(DAY_CHECK_MS, e -> stats.refreshIfDayChanged(listModel));
+            dayTimer.start();
+            saveStatusTimer = new Timer(SAVE_STATUS_MS, e -> showSaveStatus());
+            saveStatusTimer.start();
+            loaded = true;
+            try {
+                repository.watch(SwingUtilities::invokeLater);
+            } catch (IOException e) {
+                // без наблюдения изменения других процессов видны только после перезапуска
+            }
+
+            if (pagedStore != null) {
+                int[] selectedIndices = taskList.getSelectedIndices();
+                taskList.setModel(listModel);
+                taskList.setSelectedIndices(selectedIndices);
+                try {
+                    pagedStore.close();
+                } catch (IOException e) {
+                }
+                pagedStore = null;
+            }
+            applyFilter();
+            loadProgress.setVisible(false);
+            setActionsEnabled(true);
+            TaskMetrics.INSTANCE.fullyLoaded();
+            startServer();
+            startArchiving();
+        }
+    }
+
+    // Старые выполненные задачи уходят в архив сразу после загрузки и потом раз в час.
+    private void startArchiving() {
+        if (ARCHIVE_AFTER_DAYS <= 0) {
+            return;
+        }
+        archiveOldTasks();
+        archiveTimer = new Timer(ARCHIVE_CHECK_MS, e -> archiveOldTasks());
+        archiveTimer.start();
+    }
+
+    private void archiveOldTasks() {
+        // если архив не записался, задачи остаются в списке до следующей проверки
+        repository.archiveCompleted(ARCHIVE_AFTER_DAYS, SwingUtilities::invokeLater).exceptionally(e -> 0);
+    }
+
+    // Архив открывается в фоне: с диска читается только каталог, а задачи —
+    // те, что видны в списке. Поиск тоже идёт в фоне по всему архиву.
+    private void showArchive() {
+        if (!requireLoaded()) {
+            return;
         }
+        JDialog dialog = new JDialog(this, "Архив", false);
+        dialog.getContentPane().setBackground(PINK_BACKGROUND);
+        dialog.setLayout(new BorderLayout(10, 10));
+
+        ArchiveListModel archiveModel = new ArchiveListModel(TaskArchive.View.EMPTY);
+        JList<Task> archiveList = new JList<>(archiveModel);
+        archiveList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        archiveList.setSelectionBackground(PINK_BUTTON);
+        archiveList.setSelectionForeground(Color.WHITE);
+        archiveList.setCellRenderer(new TaskCellRenderer(PINK_BUTTON, DARK_PINK));
+        archiveList.setPrototypeCellValue(TaskCellRenderer.PROTOTYPE);
+
+        JTextField archiveSearch = new JTextField(20);
+        styleTextField(archiveSearch);
+        JLabel status = new JLabel("Загрузка архива...");
+        status.setForeground(DARK_PINK);
+        JButton restoreButton = createPinkButton("Вернуть в список");
+
+        TaskArchive.View[] all = {TaskArchive.View.EMPTY};
+        Runnable search = () -> {
+            String needle = archiveSearch.getText().trim().toLowerCase(Locale.ROOT);
+            TaskArchive.View source = all[0];
+            new SwingWorker<TaskArchive.View, Void>() {
+                @Override
+                protected TaskArchive.View doInBackground() {
+                    if (needle.isEmpty()) {
+                        return source;
+                    }
+                    return source.filter(task -> task.getTitle().toLowerCase(Locale.ROOT).contains(needle)
+                        || (task.getDescription() != null && task.getDescription().toLowerCase(Locale.ROOT).contains(needle))
+                        || (task.getTag() != null && task.getTag().toLowerCase(Locale.ROOT).contains(needle)));
+                }
+
+                @Override
+                protected void done() {
+                    try {
+                        // результат устаревшего поиска не показываем
+                        if (needle.equals(archiveSearch.getText().trim().toLowerCase(Locale.ROOT)) && source == all[0]) {
+                            archiveModel.setView(get());
+                            status.setText("В архиве: " + get().size());
+                        }
+                    } catch (InterruptedException | ExecutionException e) {
+                        status.setText("Ошибка поиска: " + e.getCause());
+                    }
+                }
+            }.execute();
+        };
+        Runnable reload = () -> new SwingWorker<TaskArchive.View, Void>() {
+            @Override
+            protected TaskArchive.View doInBackground() throws IOException {
+                return repository.openArchive();
+            }
+
+            @Override
+            protected void done() {
+                try {
+                    all[0] = get();
+                    search.run();
+                } catch (InterruptedException | ExecutionException e) {
+                    status.setText("Не удалось прочитать архив: " + e.getCause());
+                }
+            }
+        }.execute();
+
+        Timer archiveSearchTimer = new Timer(200, e -> search.run());
+        archiveSearchTimer.setRepeats(false);
+        archiveSearch.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                archiveSearchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                archiveSearchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                archiveSearchTimer.restart();
+            }
+        });
+
+        // задача возвращается невыполненной, поэтому снова попадает в обычный список
+        restoreButton.addActionListener(e -> {
+            List<Task> selected = archiveList.getSelectedValuesList();
+            if (selected.isEmpty()) {
+                JOptionPane.showMessageDialog(dialog, "Выберите задачи!", "Информация", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            repository.restoreArchived(selected);
+            reload.run();
+        });
+
+        JPanel searchPanel = new JPanel(new BorderLayout(10, 0));
+        searchPanel.setBackground(PINK_BACKGROUND);
+        searchPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 0, 10));
+        JLabel searchLabel = new JLabel("Поиск:");
+        searchLabel.setForeground(DARK_PINK);
+        searchLabel.setFont(searchLabel.getFont().deriveFont(Font.BOLD));
+        searchPanel.add(searchLabel, BorderLayout.WEST);
+        searchPanel.add(archiveSearch, BorderLayout.CENTER);
+
+        JPanel bottomPanel = new JPanel(new BorderLayout(10, 0));
+        bottomPanel.setBackground(PINK_BACKGROUND);
+        bottomPanel.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+        bottomPanel.add(status, BorderLayout.CENTER);
+        bottomPanel.add(restoreButton, BorderLayout.EAST);
+
+        dialog.add(searchPanel, BorderLayout.NORTH);
+        dialog.add(new JScrollPane(archiveList), BorderLayout.CENTER);
+        dialog.add(bottomPanel, BorderLayout.SOUTH);
+        dialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        dialog.setSize(550, 500);
+        dialog.setLocationRelativeTo(this);
+        dialog.setVisible(true);
+        reload.run();
     }
 
-    private void saveTasks() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(SAVE_FILE))) {
-            oos.writeObject(tasks);
+    // Изменения из HTTP выполняются в потоке Swing, как и изменения из окна.
+    private void startServer() {
+        if (HTTP_PORT <= 0) {
+            return;
+        }
+        try {
+            server = new TaskServer(repository, HTTP_PORT, SwingUtilities::invokeLater);
         } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Не удалось запустить HTTP-сервер на порту " + HTTP_PORT + ": "
+                + e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    // Строка сводки под списком: счётчики ведёт TaskStats, здесь только текст.
+    private void showStats() {
+        TaskStats.Counts counts = stats.getCounts();
+        int percent = counts.total == 0 ? 0 : (int) (100L * counts.completed / counts.total);
+        StringBuilder text = new StringBuilder("<html>");
+        text.append("Всего: ").append(counts.total)
+            .append(" · Открыто: ").append(counts.open())
+            .append(" · Выполнено: ").append(counts.completed).append(" (").append(percent).append("%)")
+            .append(" · Просрочено: ").append(counts.overdue)
+            .append(" · На сегодня: ").append(counts.dueToday);
+        // теги без названия (null и "") показываются вместе
+        Map<String, int[]> byTag = new LinkedHashMap<>();
+        for (int code = 0; code < counts.tagCount(); code++) {
+            if (counts.byTag[code] == 0) {
+                continue;
+            }
+            String tag = TagDictionary.tag(code);
+            int[] tagCounts = byTag.computeIfAbsent(tag == null || tag.isEmpty() ? "без тега" : tag, k -> new int[2]);
+            tagCounts[0] += counts.openByTag[code];
+            tagCounts[1] += counts.byTag[code];
+        }
+        String separator = "<br>";
+        for (Map.Entry<String, int[]> entry : byTag.entrySet()) {
+            text.append(separator).append(escapeHtml(entry.getKey())).append(": ")
+                .append(entry.getValue()[0]).append('/').append(entry.getValue()[1]);
+            separator = " · ";
+        }
+        statsLabel.setText(text.append("</html>").toString());
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private void setActionsEnabled(boolean enabled) {
+        for (JButton button : new JButton[] {addButton, deleteButton, completeButton, editButton,
+                retagButton, moveDeadlineButton, archiveButton}) {
+            button.setEnabled(enabled);
+        }
+    }
+
+    // Пока задачи загружаются, список изменять нельзя.
+    private boolean requireLoaded() {
+        if (!loaded) {
+            Toolkit.getDefaultToolkit().beep();
         }
+        return loaded;
+    }
+
+    // Первая ошибка записи подряд — диалог; дальше её видно в строке под списком,
+    // пока запись не удастся.
+    private void showSaveError(IOException e) {
+        SwingUtilities.invokeLater(() -> {
+            showSaveStatus();
+            JOptionPane.showMessageDialog(this,
+                "Не удалось сохранить задачи: " + e.getMessage(), "Ошибка", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void showSaveStatus() {
+        IOException failure = repository.getSaveFailure();
+        if (failure == null) {
+            saveStatusLabel.setVisible(false);
+            return;
+        }
+        long lagSeconds = repository.getSaveLagMillis() / 1000;
+        saveStatusLabel.setText("Изменения не сохранены (" + lagSeconds + " с): " + failure.getMessage());
+        saveStatusLabel.setVisible(true);
+    }
+
+    // Одно окно на все напоминания, наступившие разом.
+    private void showReminder(List<String> titles) {
+        StringBuilder text = new StringBuilder(titles.size() == 1 ? "Сегодня срок задачи:" : "Сегодня срок задач:");
+        for (int i = 0; i < Math.min(titles.size(), MAX_REMINDER_LINES); i++) {
+            text.append("\n• ").append(titles.get(i));
+        }
+        if (titles.size() > MAX_REMINDER_LINES) {
+            text.append("\n...и ещё ").append(titles.size() - MAX_REMINDER_LINES);
+        }
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+            text.toString(), "Напоминание", JOptionPane.INFORMATION_MESSAGE));
     }
 
     public static void main(String[] args) {
+        long stallThresholdMillis = Long.getLong("todo.edtStallMs", 200);
+        if (stallThresholdMillis > 0) {
+            new EdtWatchdog(stallThresholdMillis, TaskMetrics.INSTANCE).start();
+        }
         SwingUtilities.invokeLater(() -> {
             new TodoApp().setVisible(true);
         });
@@ -0,0 +1,56 @@
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Генератор синтетических задач для замеров: русские заголовки и описания,
+// теги приложения, дедлайны вокруг фиксированной даты. При одном и том же
+// seed получается один и тот же файл, где бы ни запускали.
+//
+// Запуск: gradle generateTasks -Pcount=100000 или java TaskDataGenerator <файл> <число задач> [seed]
+class TaskDataGenerator {
+    private static final String[] TAGS = {"", "🏠 Дом", "💼 Работа", "🎓 Учеба", "🛒 Покупки", "🏥 Здоровье", "✈️ Путешествие", "🎉 Развлечение"};
+    private static final String[] VERBS = {"Купить", "Позвонить", "Написать", "Подготовить", "Проверить",
+        "Оплатить", "Записаться на", "Забрать", "Обсудить", "Прочитать", "Починить", "Отправить"};
+    private static final String[] OBJECTS = {"молоко и хлеб", "маме", "отчёт за квартал", "презентацию для клиента",
+        "домашнее задание", "счёт за электричество", "приём к врачу", "посылку с почты", "план отпуска",
+        "главу учебника", "кран на кухне", "документы в налоговую", "подарок на день рождения", "билеты на поезд"};
+    private static final String[] DETAILS = {"до обеда", "не забыть квитанцию", "уточнить адрес",
+        "взять паспорт", "созвониться заранее", "после работы", "в выходные", "срочно!"};
+    // фиксированная «сегодняшняя» дата, чтобы доля просроченных задач не зависела от дня запуска
+    static final LocalDate BASE_DATE = LocalDate.of(2024, 3, 1);
+
+    private TaskDataGenerator() {
+    }
+
+    static List<Task> generate(int count, long seed) {
+        Random random = new Random(seed);
+        int baseDay = (int) BASE_DATE.toEpochDay();
+        LocalDateTime baseTime = BASE_DATE.atTime(9, 0);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            String title = VERBS[random.nextInt(VERBS.length)] + " " + OBJECTS[random.nextInt(OBJECTS.length)];
+            String description = random.nextInt(3) == 0 ? DETAILS[random.nextInt(DETAILS.length)] : "";
+            String tag = TAGS[random.nextInt(TAGS.length)];
+            int deadlineDay = random.nextInt(5) < 3 ? baseDay - 30 + random.nextInt(120) : Task.NO_DEADLINE;
+            boolean completed = random.nextInt(10) < 3;
+            LocalDateTime createdAt = baseTime.minusMinutes(random.nextInt(365 * 24 * 60));
+            tasks.add(new Task(id, title, description, tag, deadlineDay, completed, createdAt));
+        }
+        return tasks;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Использование: java TaskDataGenerator <файл> <число задач> [seed]");
+            System.exit(1);
+        }
+        int count = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        TaskCodec.write(new File(args[0]), generate(count, seed), 0, count + 1);
+        System.out.println("Записано задач: " + count + " -> " + args[0]);
+    }
+}
@@ -0,0 +1,50 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.util.List;
+
+// Сколько кучи держат задачи так, как их держит окно: модель списка и
+// записанное состояние журнала. Разница занятой кучи после сборки мусора,
+// в пересчёте на 100 000 задач. JMH такого не меряет, поэтому отдельный запуск.
+//
+// Запуск: gradle heapUsage [-Pcounts=1000,100000,1000000]
+class TaskHeapUsage {
+    private TaskHeapUsage() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String counts = args.length > 0 ? args[0] : "1000,100000,1000000";
+        System.out.printf("%-32s %9s %14s%n", "Замер", "Задач", "байт на 100k");
+        for (String count : counts.split(",")) {
+            measure(Integer.parseInt(count.trim()));
+        }
+    }
+
+    private static void measure(int count) throws IOException {
+        File dir = Files.createTempDirectory("task-heap").toFile();
+        File snapshot = new File(dir, "tasks.dat");
+        TaskCodec.write(snapshot, TaskDataGenerator.generate(count, TaskWorkloads.SEED), 0, count + 1);
+
+        long empty = usedHeapAfterGc();
+        TaskJournal journal = new TaskJournal(snapshot, new File(dir, "tasks.log"));
+        List<Task> loaded = journal.load();
+        long journalOnly = usedHeapAfterGc();
+        TaskListModel model = new TaskListModel(loaded, count + 1);
+        long withModel = usedHeapAfterGc();
+        Reference.reachabilityFence(loaded);
+        Reference.reachabilityFence(model);
+        journal.close();
+        System.out.printf("%-32s %9d %14d%n", "Модель", count, (withModel - journalOnly) * 100_000 / count);
+        System.out.printf("%-32s %9d %14d%n", "Модель + журнал", count, (withModel - empty) * 100_000 / count);
+        TaskWorkloads.deleteRecursively(dir);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
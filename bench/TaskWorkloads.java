@@ -0,0 +1,164 @@
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.swing.JList;
+import jmh.ModelWorkload;
+import jmh.SnapshotWorkload;
+
+// Операции замеров JMH (bench/jmh). Лежат в пакете по умолчанию, чтобы видеть
+// классы приложения; публичны только класс и фабрики, которые находит jmh.Workloads.
+public final class TaskWorkloads {
+    static final long SEED = 42;
+
+    private TaskWorkloads() {
+    }
+
+    public static SnapshotWorkload snapshot() {
+        return new Snapshot();
+    }
+
+    public static ModelWorkload model() {
+        return new Model();
+    }
+
+    private static final class Snapshot implements SnapshotWorkload {
+        private int count;
+        private List<Task> tasks;
+        private File dir;
+        private File snapshot;
+        private File journalSnapshot;
+        private File journalLog;
+
+        @Override
+        public void setUp(int count) throws IOException {
+            this.count = count;
+            tasks = TaskDataGenerator.generate(count, SEED);
+            dir = Files.createTempDirectory("task-bench").toFile();
+            snapshot = new File(dir, "tasks.dat");
+            TaskCodec.write(snapshot, tasks, 0, count + 1);
+            File journalDir = new File(dir, "journal");
+            journalDir.mkdirs();
+            journalSnapshot = new File(journalDir, "tasks.dat");
+            journalLog = new File(journalDir, "tasks.log");
+            Files.copy(snapshot.toPath(), journalSnapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        @Override
+        public void tearDown() throws IOException {
+            deleteRecursively(dir);
+        }
+
+        @Override
+        public Object writeSnapshot() throws IOException {
+            TaskCodec.write(snapshot, tasks, 0, count + 1);
+            return snapshot;
+        }
+
+        @Override
+        public Object readSnapshot() throws IOException {
+            List<Task> loaded = new ArrayList<>(count);
+            TaskCodec.read(snapshot, loaded);
+            return loaded;
+        }
+
+        @Override
+        public Object loadJournal() throws IOException {
+            TaskJournal journal = new TaskJournal(journalSnapshot, journalLog);
+            try {
+                return journal.load();
+            } finally {
+                journal.close();
+            }
+        }
+
+        @Override
+        public Object openPaged() throws IOException {
+            try (PagedTaskStore store = PagedTaskStore.open(snapshot)) {
+                return store.get(0);
+            }
+        }
+    }
+
+    private static final class Model implements ModelWorkload {
+        private List<Task> tasks;
+        private TaskListModel model;
+        private JList<Task> list;
+        private TaskCellRenderer renderer;
+
+        @Override
+        public void setUp(int count) {
+            tasks = TaskDataGenerator.generate(count, SEED);
+            model = new TaskListModel(new ArrayList<>(tasks), count + 1);
+            TaskBitmapIndex bitmapIndex = new TaskBitmapIndex(model);
+            model.addTaskListener(bitmapIndex);
+            TaskSearchIndex searchIndex = new TaskSearchIndex(model);
+            model.addTaskListener(searchIndex);
+            model.addTaskListener(new FilteredTaskListModel(model, bitmapIndex, searchIndex));
+            model.addTaskListener(new TaskOrderIndex(model, TaskOrderIndex.BY_DEADLINE));
+            model.addTaskListener(new TaskStats(TaskStats.compute(model::taskAt, model.getSize(), TaskStats.today()),
+                    () -> { }));
+            list = new JList<>(model);
+            renderer = new TaskCellRenderer(new Color(255, 182, 193), new Color(199, 21, 133));
+        }
+
+        @Override
+        public Object buildIndexes() {
+            return new Object[] {new TaskBitmapIndex(model), new TaskSearchIndex(model)};
+        }
+
+        @Override
+        public Object computeStats() {
+            return TaskStats.compute(model::taskAt, model.getSize(), TaskStats.today());
+        }
+
+        @Override
+        public Object update(int row) {
+            model.update(row, task -> task.setCompleted(!task.isCompleted()));
+            return model;
+        }
+
+        @Override
+        public Object removeAndAdd(int row) {
+            Task removed = model.remove(row);
+            Task added = new Task(model.allocateId(), removed.getTitle(), removed.getDescription(),
+                    removed.getTag(), removed.getDeadlineDay());
+            model.add(added);
+            return added;
+        }
+
+        @Override
+        public Object indexOf(int row) {
+            return model.indexOf(model.idAt(row));
+        }
+
+        @Override
+        public Object toStringCached(int row) {
+            return tasks.get(row).toString();
+        }
+
+        @Override
+        public Object toStringRebuilt(int row) {
+            Task task = tasks.get(row);
+            task.setTitle(task.getTitle());
+            return task.toString();
+        }
+
+        @Override
+        public Object render(int row) {
+            return renderer.getListCellRendererComponent(list, model.getElementAt(row), row, row % 10 == 0, false);
+        }
+    }
+
+    static void deleteRecursively(File dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir.toPath())) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
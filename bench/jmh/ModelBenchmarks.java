@@ -0,0 +1,93 @@
+package jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Изменения модели списка с подключёнными индексами, построение индексов,
+// Task.toString и отрисовка строки. Строки выбираются по кругу из
+// случайных позиций с постоянным seed.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class ModelBenchmarks {
+    private static final int POSITIONS = 8192;
+
+    @Param({"1000", "100000", "1000000"})
+    public int count;
+
+    private ModelWorkload workload;
+    private int[] positions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = Workloads.create("model", ModelWorkload.class);
+        workload.setUp(count);
+        Random random = new Random(42);
+        positions = new int[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = random.nextInt(count);
+        }
+    }
+
+    private int row() {
+        return positions[next++ & (POSITIONS - 1)];
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object buildIndexes() {
+        return workload.buildIndexes();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object computeStats() {
+        return workload.computeStats();
+    }
+
+    @Benchmark
+    public Object update() {
+        return workload.update(row());
+    }
+
+    @Benchmark
+    public Object removeAndAdd() {
+        return workload.removeAndAdd(row());
+    }
+
+    @Benchmark
+    public Object indexOf() {
+        return workload.indexOf(row());
+    }
+
+    @Benchmark
+    public Object toStringCached() {
+        return workload.toStringCached(row());
+    }
+
+    @Benchmark
+    public Object toStringRebuilt() {
+        return workload.toStringRebuilt(row());
+    }
+
+    @Benchmark
+    public Object render() {
+        return workload.render(row());
+    }
+}
@@ -0,0 +1,24 @@
+package jmh;
+
+// Операции с моделью списка для ModelBenchmarks; реализация — TaskWorkloads.model().
+// row — номер строки меньше count; число строк модели между операциями не меняется.
+public interface ModelWorkload {
+    // Создаёт модель из count задач и подключает к ней индексы, как в окне.
+    void setUp(int count);
+
+    Object buildIndexes();
+
+    Object computeStats();
+
+    Object update(int row);
+
+    Object removeAndAdd(int row);
+
+    Object indexOf(int row);
+
+    Object toStringCached(int row);
+
+    Object toStringRebuilt(int row);
+
+    Object render(int row);
+}
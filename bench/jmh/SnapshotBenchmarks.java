@@ -0,0 +1,61 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Чтение и запись снимка, загрузка журнала и постраничное открытие файла.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class SnapshotBenchmarks {
+    @Param({"1000", "100000", "1000000"})
+    public int count;
+
+    private SnapshotWorkload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workload = Workloads.create("snapshot", SnapshotWorkload.class);
+        workload.setUp(count);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        workload.tearDown();
+    }
+
+    @Benchmark
+    public Object codecWrite() throws Exception {
+        return workload.writeSnapshot();
+    }
+
+    @Benchmark
+    public Object codecRead() throws Exception {
+        return workload.readSnapshot();
+    }
+
+    @Benchmark
+    public Object journalLoad() throws Exception {
+        return workload.loadJournal();
+    }
+
+    @Benchmark
+    public Object pagedOpen() throws Exception {
+        return workload.openPaged();
+    }
+}
@@ -0,0 +1,17 @@
+package jmh;
+
+// Операции с файлами задач для SnapshotBenchmarks; реализация — TaskWorkloads.snapshot().
+public interface SnapshotWorkload {
+    // Создаёт count задач и пишет их снимок во временный каталог.
+    void setUp(int count) throws Exception;
+
+    void tearDown() throws Exception;
+
+    Object writeSnapshot() throws Exception;
+
+    Object readSnapshot() throws Exception;
+
+    Object loadJournal() throws Exception;
+
+    Object openPaged() throws Exception;
+}
@@ -0,0 +1,18 @@
+package jmh;
+
+// JMH не принимает замеры в пакете по умолчанию, а из именованного пакета классы
+// приложения не видны. Поэтому сами операции реализованы в TaskWorkloads (пакет
+// по умолчанию), а замеры получают их через интерфейсы этого пакета. Отражение
+// нужно только здесь, один раз при подготовке; операции вызываются напрямую.
+final class Workloads {
+    private Workloads() {
+    }
+
+    static <T> T create(String factory, Class<T> type) {
+        try {
+            return type.cast(Class.forName("TaskWorkloads").getMethod(factory).invoke(null));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Нет реализации замеров TaskWorkloads." + factory, e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.JList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Пакетные изменения в отфильтрованном виде не должны сдвигать выделение JList на другие задачи.
+class FilteredTaskListModelTest {
+    private TaskListModel model;
+    private FilteredTaskListModel filtered;
+    private JList<Task> list;
+
+    @BeforeEach
+    void setUp() {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) {
+            // дедлайны в обратном порядке id, чтобы порядок вида отличался от модели
+            tasks.add(new Task(id, "Задача " + id, "", id % 2 == 0 ? "🏠 Дом" : null, 1000 - id));
+        }
+        model = new TaskListModel(tasks, 21);
+        TaskBitmapIndex bitmapIndex = new TaskBitmapIndex(model);
+        model.addTaskListener(bitmapIndex);
+        TaskSearchIndex searchIndex = new TaskSearchIndex(model);
+        model.addTaskListener(searchIndex);
+        filtered = new FilteredTaskListModel(model, bitmapIndex, searchIndex);
+        model.addTaskListener(filtered);
+        TaskOrderIndex order = new TaskOrderIndex(model, TaskOrderIndex.BY_DEADLINE);
+        model.addTaskListener(order);
+        filtered.setFilter(Collections.emptySet(), false, "", order, Long.MIN_VALUE, Long.MAX_VALUE);
+        list = new JList<>(filtered);
+    }
+
+    @Test
+    void selectionFollowsTasksAfterBatchRemove() {
+        select(3, 10, 17);
+        model.removeAll(new int[] {indexOf(2), indexOf(4), indexOf(11), indexOf(12), indexOf(19)});
+        assertEquals(List.of(17, 10, 3), TaskListModelTest.selectedIds(list));
+        assertEquals(15, filtered.getSize());
+    }
+
+    @Test
+    void selectionFollowsTasksWhenBatchHidesRows() {
+        select(5, 14);
+        // выполненные задачи пропадают из вида «открытые»
+        model.updateAll(new int[] {indexOf(6), indexOf(7), indexOf(15)}, task -> task.setCompleted(true));
+        assertEquals(List.of(14, 5), TaskListModelTest.selectedIds(list));
+        assertEquals(17, filtered.getSize());
+    }
+
+    @Test
+    void selectionFollowsTasksWhenBatchMovesRows() {
+        select(8, 12);
+        // задача 9 уезжает в конец вида, задача 13 — в начало
+        model.updateAll(new int[] {indexOf(9), indexOf(13)}, task ->
+                task.setDeadlineDay(task.getId() == 9 ? 5000 : 10));
+        assertEquals(List.of(12, 8), TaskListModelTest.selectedIds(list));
+        assertEquals(13, filtered.getElementAt(0).getId());
+        assertEquals(9, filtered.getElementAt(filtered.getSize() - 1).getId());
+    }
+
+    private int indexOf(int id) {
+        return model.indexOf(id);
+    }
+
+    private void select(int... ids) {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < filtered.getSize(); i++) {
+            for (int id : ids) {
+                if (filtered.getElementAt(i).getId() == id) {
+                    rows.add(i);
+                }
+            }
+        }
+        list.setSelectedIndices(rows.stream().mapToInt(Integer::intValue).toArray());
+    }
+}
@@ -0,0 +1,55 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PagedTaskStoreTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void pagesMatchTheWholeSnapshot() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        List<Task> tasks = new ArrayList<>();
+        String[] tags = {null, "💼 Работа", "🛒 Покупки"};
+        for (int id = 1; id <= 3 * TaskCodec.PAGE_SIZE + 17; id++) {
+            tasks.add(new Task(id, "Задача " + id, id % 2 == 0 ? null : "Описание " + id, tags[id % 3], id));
+        }
+        TaskCodec.write(snapshot, tasks, 0, tasks.size() + 1);
+
+        try (PagedTaskStore store = PagedTaskStore.open(snapshot)) {
+            assertEquals(tasks.size(), store.size());
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                Task task = store.get(i);
+                assertEquals(tasks.get(i).getId(), task.getId());
+                assertEquals(tasks.get(i).getDescription(), task.getDescription());
+                assertEquals(tasks.get(i).getTag(), task.getTag());
+                assertEquals(tasks.get(i).getDeadlineDay(), task.getDeadlineDay());
+            }
+        }
+    }
+
+    @Test
+    void snapshotCanBeReplacedWhileOpen() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        TaskCodec.write(snapshot, List.of(new Task(1, "Старая", "", null, Task.NO_DEADLINE)), 0, 2);
+        File replacement = new File(dir, "tasks.dat.tmp");
+        TaskCodec.write(replacement, List.of(new Task(2, "Новая", "", null, Task.NO_DEADLINE)), 1, 3);
+
+        try (PagedTaskStore store = PagedTaskStore.open(snapshot)) {
+            Files.move(replacement.toPath(), snapshot.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            // открытый снимок дочитывается старым
+            assertEquals("Старая", store.get(0).getTitle());
+        }
+        List<Task> read = new ArrayList<>();
+        TaskCodec.read(snapshot, read);
+        assertEquals("Новая", read.get(0).getTitle());
+    }
+}
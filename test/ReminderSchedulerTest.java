@@ -0,0 +1,32 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ReminderSchedulerTest {
+    @Test
+    void missedRemindersOfTodayComeAtOnceInOneCall() throws InterruptedException {
+        BlockingQueue<List<String>> calls = new LinkedBlockingQueue<>();
+        // время напоминания — полночь, значит, сегодняшнее уже пропущено
+        ReminderScheduler reminders = new ReminderScheduler(LocalTime.MIDNIGHT, calls::add);
+        int today = (int) LocalDate.now().toEpochDay();
+        Task done = new Task(3, "Выполнена", "", null, today);
+        done.setCompleted(true);
+        reminders.scheduleAll(List.of(
+                new Task(1, "Первая", "", null, today),
+                new Task(2, "Вторая", "", null, today),
+                done,
+                new Task(4, "Вчерашняя", "", null, today - 1),
+                new Task(5, "Завтрашняя", "", null, today + 1)));
+
+        assertEquals(List.of("Первая", "Вторая"), calls.poll(5, TimeUnit.SECONDS));
+        assertNull(calls.poll(200, TimeUnit.MILLISECONDS));
+        reminders.shutdown();
+    }
+}
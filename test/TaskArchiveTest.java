@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TaskArchiveTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void openListsArchivedTasksNotRestored() throws IOException {
+        TaskArchive archive = new TaskArchive(new File(dir, "tasks.dat.archive"));
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 2000; id++) {
+            // длинное описание: записи не помещаются в один прочитанный кусок
+            String description = id % 100 == 0 ? "д".repeat(100_000) : "Описание " + id;
+            tasks.add(new Task(id, "Задача " + id, description, "🏠 Дом", Task.NO_DEADLINE));
+        }
+        archive.append(tasks.subList(0, 1000));
+        archive.append(tasks.subList(1000, 2000));
+        archive.markRestored(new int[] {5, 1500});
+
+        TaskArchive.View view = archive.open();
+        assertEquals(1998, view.size());
+        int index = 0;
+        for (Task task : tasks) {
+            if (task.getId() == 5 || task.getId() == 1500) {
+                continue;
+            }
+            assertEquals(task.getId(), view.getId(index));
+            assertEquals(task.getDescription(), view.get(index).getDescription());
+            index++;
+        }
+        archive.close();
+    }
+
+    @Test
+    void tornTailIsCutBeforeTheNextAppend() throws IOException {
+        File file = new File(dir, "tasks.dat.archive");
+        TaskArchive archive = new TaskArchive(file);
+        archive.append(List.of(new Task(1, "Первая", "", null, Task.NO_DEADLINE)));
+        archive.close();
+        long length = file.length();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(length);
+            raw.write(new byte[] {0, 0, 1, 0, 1, 2});
+        }
+
+        archive = new TaskArchive(file);
+        archive.append(List.of(new Task(2, "Вторая", "", null, Task.NO_DEADLINE)));
+        TaskArchive.View view = archive.open();
+        assertEquals(2, view.size());
+        assertEquals("Вторая", view.get(1).getTitle());
+        archive.close();
+    }
+}
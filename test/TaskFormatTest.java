@@ -0,0 +1,113 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TaskFormatTest {
+    @TempDir
+    File dir;
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 3, 1, 9, 30, 15);
+
+    @Test
+    void csvRoundTrip() throws IOException {
+        roundTrip(TaskFormat.CSV);
+    }
+
+    @Test
+    void jsonLinesRoundTrip() throws IOException {
+        roundTrip(TaskFormat.JSONL);
+    }
+
+    private void roundTrip(TaskFormat format) throws IOException {
+        int deadline = (int) LocalDate.of(2024, 12, 31).toEpochDay();
+        List<Task> tasks = List.of(
+                new Task(1, "Купить молоко, хлеб", "Сказал: \"без сахара\"", "🛒 Покупки", deadline, true, CREATED),
+                new Task(2, "Две строки", "первая\nвторая,\n\"третья\"", "", Task.NO_DEADLINE, false, CREATED),
+                new Task(3, "Управляющие \u0001 и \\ символы\t", "", "💼 Работа", deadline, false, CREATED));
+        File source = new File(dir, "source.dat");
+        TaskCodec.write(source, tasks, 0, 4);
+        TaskRepository exporting = new TaskRepository(source, new File(dir, "source.log"), 10, e -> { });
+        StringWriter exported = new StringWriter();
+        assertEquals(3, exporting.exportTasks(exported, format));
+        exporting.close();
+
+        File target = new File(dir, "target.dat");
+        TaskRepository importing = new TaskRepository(target, new File(dir, "target.log"), 10, e -> { });
+        assertEquals(3, importing.importTasks(new StringReader(exported.toString()), format));
+        List<Task> imported = importing.loadTasks();
+        importing.close();
+
+        assertEquals(tasks.size(), imported.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task expected = tasks.get(i);
+            Task actual = imported.get(i);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getTag(), actual.getTag());
+            assertEquals(expected.getDeadlineDay(), actual.getDeadlineDay());
+            assertEquals(expected.isCompleted(), actual.isCompleted());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        }
+    }
+
+    @Test
+    void csvQuotedFieldsSpanLinesAndDoubleQuotes() throws IOException {
+        BufferedReader in = new BufferedReader(new StringReader(
+                "7,\"Строка\nещё строка\",\"Он сказал \"\"да\"\"\",,2024-05-01,false,2024-03-01T09:30:15\n"
+                        + "8,Следующая,,,,true,\n"));
+        Task first = TaskFormat.CSV.parse(TaskFormat.CSV.readRecord(in), 1);
+        assertEquals("Строка\nещё строка", first.getTitle());
+        assertEquals("Он сказал \"да\"", first.getDescription());
+        assertEquals(LocalDate.of(2024, 5, 1).toEpochDay(), first.getDeadlineDay());
+        Task second = TaskFormat.CSV.parse(TaskFormat.CSV.readRecord(in), 2);
+        assertEquals("Следующая", second.getTitle());
+        assertTrue(second.isCompleted());
+        assertEquals(null, TaskFormat.CSV.readRecord(in));
+    }
+
+    @Test
+    void jsonUnicodeEscapesAndUnknownFields() {
+        Task task = TaskFormat.JSONL.parse("{\"title\":\"\\u041f\\u0440\\u0438\\u0432\\u0435\\u0442 \\\"\\u00e9\\\"\","
+                + "\"extra\":42,\"deadline\":null,\"completed\":true}", 5);
+        assertEquals("Привет \"é\"", task.getTitle());
+        assertEquals(5, task.getId());
+        assertEquals(Task.NO_DEADLINE, task.getDeadlineDay());
+        assertTrue(task.isCompleted());
+    }
+
+    @Test
+    void badRecordsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskFormat.CSV.parse("1,Задача,,,,false,2024-03-01T09:30:15,лишнее", 1));
+        IllegalArgumentException badDate = assertThrows(IllegalArgumentException.class,
+                () -> TaskFormat.CSV.parse("1,Задача,,,2024-13-45,false,", 1));
+        assertTrue(badDate.getMessage().contains("2024-13-45"), badDate.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> TaskFormat.JSONL.parse("{\"title\":\"Задача\",\"createdAt\":\"вчера\"}", 1));
+        assertThrows(IllegalArgumentException.class, () -> TaskFormat.JSONL.parse("{\"title\":}", 1));
+        assertThrows(IllegalArgumentException.class, () -> TaskFormat.CSV.parse("1,,описание", 1));
+    }
+
+    @Test
+    void csvWithoutHeaderKeepsItsFirstTask() throws IOException {
+        TaskRepository repository = new TaskRepository(new File(dir, "tasks.dat"), new File(dir, "tasks.log"), 10, e -> { });
+        assertEquals(2, repository.importTasks(new StringReader("1,Первая,,,,false,\n2,Вторая,,,,false,\n"),
+                TaskFormat.CSV));
+        assertEquals(1, repository.importTasks(new StringReader("\uFEFF" + TaskFormat.CSV.header()
+                + "3,Третья,,,,false,\n"), TaskFormat.CSV));
+        List<Task> tasks = repository.loadTasks();
+        repository.close();
+        assertEquals(List.of("Первая", "Вторая", "Третья"), tasks.stream().map(Task::getTitle).toList());
+    }
+}
@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TaskJournalTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void failedCompactionsKeepEveryRecord() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        File log = new File(dir, "tasks.log");
+        TaskJournal journal = new TaskJournal(snapshot, log);
+        journal.load();
+        // вместо временного файла снимка — каталог: снимок не запишется
+        File tmp = new File(dir, "tasks.dat.tmp");
+        assertTrue(tmp.mkdir());
+
+        journal.append(adds(1, 3));
+        assertThrows(IOException.class, journal::fold);
+        journal.append(adds(4, 5));
+        assertThrows(IOException.class, journal::fold);
+        assertTrue(tmp.delete());
+
+        TaskJournal reloaded = new TaskJournal(snapshot, log);
+        try {
+            assertEquals(List.of(1, 2, 3, 4, 5), ids(reloaded.load()));
+        } finally {
+            reloaded.close();
+            journal.close();
+        }
+    }
+
+    @Test
+    void unloadedJournalDoesNotTouchTheFiles() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        File log = new File(dir, "tasks.log");
+        TaskJournal journal = new TaskJournal(snapshot, log);
+        assertThrows(IOException.class, () -> journal.append(adds(1, 1)));
+        assertThrows(IOException.class, journal::fold);
+        journal.maybeCompact();
+        journal.close();
+        assertTrue(!snapshot.exists() && (!log.exists() || log.length() == 0));
+    }
+
+    static List<TaskJournal.Entry> adds(int fromId, int toId) {
+        List<TaskJournal.Entry> entries = new ArrayList<>();
+        for (int id = fromId; id <= toId; id++) {
+            entries.add(new TaskJournal.Entry(TaskJournal.OP_ADD, id,
+                    new Task(id, "Задача " + id, "", null, Task.NO_DEADLINE)));
+        }
+        return entries;
+    }
+
+    static List<Integer> ids(List<Task> tasks) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+}
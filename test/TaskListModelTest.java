@@ -0,0 +1,146 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JList;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Сколько событий JList получает на одно изменение модели.
+class TaskListModelTest {
+    private TaskListModel model;
+    private final List<String> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            tasks.add(new Task(id, "Задача " + id, "", null, Task.NO_DEADLINE));
+        }
+        model = new TaskListModel(tasks, 11);
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("added " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("removed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("changed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+        });
+    }
+
+    @Test
+    void addFiresOneEventForTheNewRow() {
+        model.add(new Task(model.allocateId(), "Новая", "", null, Task.NO_DEADLINE));
+        assertEquals(List.of("added 10-10"), events);
+    }
+
+    @Test
+    void insertFiresOneEventAtItsIdPosition() {
+        model.remove(4);
+        events.clear();
+        model.insert(new Task(5, "Из другого процесса", "", null, Task.NO_DEADLINE));
+        assertEquals(List.of("added 4-4"), events);
+    }
+
+    @Test
+    void updateFiresOneEventForItsRow() {
+        model.update(3, task -> task.setCompleted(true));
+        assertEquals(List.of("changed 3-3"), events);
+    }
+
+    @Test
+    void removeFiresOneEventForItsRow() {
+        model.remove(2);
+        assertEquals(List.of("removed 2-2"), events);
+    }
+
+    @Test
+    void batchUpdateFiresOneEvent() {
+        model.updateAll(new int[] {1, 4, 8}, task -> task.setTag("🏠 Дом"));
+        assertEquals(List.of("changed 1-8"), events);
+    }
+
+    @Test
+    void batchRemoveOfAdjacentRowsFiresOneEvent() {
+        model.removeAll(new int[] {3, 4, 5});
+        assertEquals(List.of("removed 3-5"), events);
+        assertEquals(7, model.getSize());
+    }
+
+    @Test
+    void batchRemoveFiresOneEventPerRunFromTheEnd() {
+        model.removeAll(new int[] {1, 2, 5, 7, 8});
+        assertEquals(List.of("removed 7-8", "removed 5-5", "removed 1-2"), events);
+    }
+
+    @Test
+    void selectionStaysOnTheSameTaskAfterBatchRemove() {
+        JList<Task> list = new JList<>(model);
+        list.setSelectedIndices(new int[] {3, 9});
+        model.removeAll(new int[] {0, 2, 6});
+        assertEquals(List.of(4, 10), selectedIds(list));
+    }
+
+    static List<Integer> selectedIds(JList<Task> list) {
+        List<Integer> ids = new ArrayList<>();
+        for (Task task : list.getSelectedValuesList()) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    void loadedChunkFiresOneEvent() {
+        List<Task> chunk = new ArrayList<>();
+        for (int id = 11; id <= 20; id++) {
+            chunk.add(new Task(id, "Задача " + id, "", null, Task.NO_DEADLINE));
+        }
+        model.appendLoaded(chunk);
+        assertEquals(List.of("added 10-19"), events);
+    }
+
+    @Test
+    void listenersGetOneBatchPerBatchChange() {
+        List<String> calls = new ArrayList<>();
+        model.addTaskListener(new TaskListModel.Listener() {
+            @Override
+            public void taskAdded(int index, Task task) {
+                calls.add("added");
+            }
+
+            @Override
+            public void taskUpdated(int index, Task task) {
+                calls.add("updated " + task.getId());
+            }
+
+            @Override
+            public void taskRemoved(int index, Task task) {
+                calls.add("removed " + task.getId());
+            }
+
+            @Override
+            public void batchStarted() {
+                calls.add("start");
+            }
+
+            @Override
+            public void batchFinished() {
+                calls.add("finish");
+            }
+        });
+        model.updateAll(new int[] {0, 2}, task -> task.setCompleted(true));
+        model.removeAll(new int[] {1, 5});
+        assertEquals(List.of("start", "updated 1", "updated 3", "finish", "start", "removed 2", "removed 6", "finish"),
+                calls);
+    }
+}
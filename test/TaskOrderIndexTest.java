@@ -0,0 +1,78 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Диапазоны ключей, по которым окно строит виды «Просроченные», «На 7 дней» и «Период».
+class TaskOrderIndexTest {
+    private static final int TODAY = 20_000;
+
+    private TaskListModel model;
+    private TaskOrderIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Task> tasks = new ArrayList<>();
+        // id — дедлайн относительно TODAY: 1 → -3, 2 → -1, 3 → 0, 4 → 2, 5 → 6, 6 → 7, 7 → 12
+        int[] offsets = {-3, -1, 0, 2, 6, 7, 12};
+        for (int i = 0; i < offsets.length; i++) {
+            tasks.add(new Task(i + 1, "Задача " + (i + 1), "", null, TODAY + offsets[i]));
+        }
+        tasks.add(new Task(8, "Без дедлайна", "", null, Task.NO_DEADLINE));
+        tasks.add(new Task(9, "Тоже без дедлайна", "", null, Task.NO_DEADLINE));
+        model = new TaskListModel(tasks, 10);
+        index = new TaskOrderIndex(model, TaskOrderIndex.BY_DEADLINE);
+        model.addTaskListener(index);
+    }
+
+    @Test
+    void lowerBoundFindsTheFirstKeyNotBelow() {
+        assertEquals(0, index.lowerBound(Long.MIN_VALUE));
+        assertEquals(0, index.lowerBound(TODAY - 3));
+        assertEquals(1, index.lowerBound(TODAY - 2));
+        assertEquals(2, index.lowerBound(TODAY));
+        assertEquals(7, index.lowerBound(TODAY + 13));
+        // задачи без дедлайна лежат в конце с ключом Long.MAX_VALUE
+        assertEquals(7, index.lowerBound(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, index.keyAt(8));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), range(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void viewRanges() {
+        // просроченные: дедлайн до сегодня
+        assertEquals(List.of(1, 2), range(Long.MIN_VALUE, TODAY - 1));
+        // на 7 дней: с сегодня по шестой день вперёд
+        assertEquals(List.of(3, 4, 5), range(TODAY, TODAY + 6));
+        // период
+        assertEquals(List.of(4, 5, 6), range(TODAY + 1, TODAY + 7));
+        assertEquals(List.of(), range(TODAY + 8, TODAY + 11));
+    }
+
+    @Test
+    void changesKeepTheOrder() {
+        // одна задача и пакет: старые ключи берутся из taskUpdating
+        model.update(model.indexOf(7), task -> task.setDeadlineDay(TODAY - 5));
+        model.updateAll(new int[] {model.indexOf(1), model.indexOf(8)}, task ->
+                task.setDeadlineDay(task.getId() == 1 ? Task.NO_DEADLINE : TODAY + 1));
+        model.remove(model.indexOf(3));
+        model.add(new Task(10, "Новая", "", null, TODAY));
+
+        assertEquals(List.of(7, 2), range(Long.MIN_VALUE, TODAY - 1));
+        assertEquals(List.of(10, 8, 4, 5), range(TODAY, TODAY + 6));
+        assertEquals(List.of(1, 9), range(Long.MAX_VALUE, Long.MAX_VALUE));
+        assertEquals(model.getSize(), index.size());
+    }
+
+    // Как FilteredTaskListModel: id задач с ключами из [from, to] в порядке индекса.
+    private List<Integer> range(long from, long to) {
+        int end = to == Long.MAX_VALUE ? index.size() : index.lowerBound(to + 1);
+        List<Integer> ids = new ArrayList<>();
+        for (int i = index.lowerBound(from); i < end; i++) {
+            ids.add(index.idAt(i));
+        }
+        return ids;
+    }
+}
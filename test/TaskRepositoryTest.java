@@ -0,0 +1,172 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TaskRepositoryTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void unreadableSnapshotIsReportedAndLeftAlone() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            tasks.add(new Task(id, "Задача " + id, "", null, Task.NO_DEADLINE));
+        }
+        TaskCodec.write(snapshot, tasks, 0, 101);
+        try (RandomAccessFile file = new RandomAccessFile(snapshot, "rw")) {
+            file.setLength(file.length() / 2);
+        }
+        byte[] damaged = Files.readAllBytes(snapshot.toPath());
+
+        TaskRepository repository = new TaskRepository(snapshot, new File(dir, "tasks.log"), 10, e -> { });
+        assertThrows(IOException.class, repository::loadTasks);
+        repository.close();
+        assertArrayEquals(damaged, Files.readAllBytes(snapshot.toPath()));
+    }
+
+    @Test
+    void saveFailureIsReportedUntilTheNextSave() throws Exception {
+        File log = new File(dir, "tasks.log");
+        CountDownLatch failed = new CountDownLatch(1);
+        TaskRepository repository = new TaskRepository(new File(dir, "tasks.dat"), log, 10, e -> failed.countDown());
+        TaskListModel model = new TaskListModel(repository.loadTasks(), 1);
+        repository.attach(model);
+        // каталог на месте журнала: запись не удаётся, пока его не уберут
+        Files.delete(log.toPath());
+        Files.createDirectory(log.toPath());
+        repository.add("Купить молоко", "", null, Task.NO_DEADLINE);
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+        assertNotNull(repository.getSaveFailure());
+        assertNotNull(TaskMetrics.INSTANCE.getSaveFailure());
+
+        Files.delete(log.toPath());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (repository.getSaveFailure() != null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNull(repository.getSaveFailure());
+        assertEquals(0, repository.getSaveLagMillis());
+        assertEquals("", TaskMetrics.INSTANCE.getSaveFailure());
+        repository.close();
+    }
+
+    @Test
+    void legacyCompletedTasksAreNotArchivedAtOnce() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        File log = new File(dir, "tasks.log");
+        // выполнена год назад, но время выполнения тогда ещё не хранили
+        Task legacy = new Task(1, "Старая", "", null, Task.NO_DEADLINE, true,
+                LocalDateTime.now().minusYears(1));
+        TaskCodec.write(snapshot, List.of(legacy), 0, 2);
+
+        TaskRepository repository = new TaskRepository(snapshot, log, 10, e -> { });
+        TaskListModel model = new TaskListModel(repository.loadTasks(), 1);
+        repository.attach(model);
+        assertEquals(0, repository.archiveCompleted(30, Runnable::run).join());
+        assertEquals(1, model.getSize());
+        long stamped = model.getElementAt(0).getCompletedAtMillis();
+        assertNotEquals(Task.NO_TIME, stamped);
+        repository.close();
+
+        repository = new TaskRepository(snapshot, log, 10, e -> { });
+        assertEquals(stamped, repository.loadTasks().get(0).getCompletedAtMillis());
+        repository.close();
+    }
+
+    @Test
+    void addFailsFastWhileAnotherProcessHoldsTheFiles() throws Exception {
+        File snapshot = new File(dir, "tasks.dat");
+        TaskRepository repository = new TaskRepository(snapshot, new File(dir, "tasks.log"), 10, e -> { });
+        TaskListModel model = new TaskListModel(repository.loadTasks(), 1);
+        repository.attach(model);
+        repository.add("Первая", "", null, Task.NO_DEADLINE);
+
+        // другой процесс держит блокировку файлов, пока у него открыт stdin
+        File locker = new File(dir, "Locker.java");
+        Files.writeString(locker.toPath(), "import java.nio.channels.FileChannel;\n"
+                + "import java.nio.file.*;\n"
+                + "public class Locker {\n"
+                + "    public static void main(String[] args) throws Exception {\n"
+                + "        FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.WRITE);\n"
+                + "        channel.lock(0, 1, false);\n"
+                + "        System.out.println(\"locked\");\n"
+                + "        System.in.read();\n"
+                + "    }\n"
+                + "}\n");
+        String java = ProcessHandle.current().info().command().orElse("java");
+        Process process = new ProcessBuilder(java, locker.getPath(), snapshot.getPath() + ".lock").start();
+        try {
+            BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("locked", out.readLine());
+            // первый блок id кончается, следующий не зарезервировать
+            IOException busy = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < 2048 && busy == null; i++) {
+                try {
+                    repository.add("Задача " + i, "", null, Task.NO_DEADLINE);
+                } catch (IOException e) {
+                    busy = e;
+                }
+            }
+            assertNotNull(busy);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        } finally {
+            process.getOutputStream().close();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+
+        int size = model.getSize();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (model.getSize() == size && System.nanoTime() < deadline) {
+            try {
+                repository.add("После", "", null, Task.NO_DEADLINE);
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+        assertEquals(size + 1, model.getSize());
+        repository.close();
+    }
+
+    @Test
+    void onlyTasksCompletedBeforeTheCutoffAreArchived() throws IOException {
+        File snapshot = new File(dir, "tasks.dat");
+        long old = Task.toMillis(LocalDateTime.now().minusDays(40));
+        long recent = Task.toMillis(LocalDateTime.now().minusDays(2));
+        TaskCodec.write(snapshot, List.of(
+                new Task(1, "Давно выполнена", "", null, Task.NO_DEADLINE, true, old, old),
+                new Task(2, "Недавно выполнена", "", null, Task.NO_DEADLINE, true, old, recent),
+                new Task(3, "Открыта", "", null, Task.NO_DEADLINE, false, old, Task.NO_TIME)), 0, 4);
+
+        TaskRepository repository = new TaskRepository(snapshot, new File(dir, "tasks.log"), 10, e -> { });
+        TaskListModel model = new TaskListModel(repository.loadTasks(), 1);
+        repository.attach(model);
+        assertEquals(1, repository.archiveCompleted(30, Runnable::run).join());
+        assertEquals(2, model.getSize());
+        assertEquals(-1, model.indexOf(1));
+        TaskArchive.View archived = repository.openArchive();
+        assertEquals(1, archived.size());
+        assertEquals("Давно выполнена", archived.get(0).getTitle());
+        repository.close();
+    }
+}
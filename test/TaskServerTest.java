@@ -0,0 +1,174 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Проверки запросов к TaskServer и то, что каждый запрос — одно изменение модели.
+class TaskServerTest {
+    @TempDir
+    File dir;
+
+    private TaskRepository repository;
+    private TaskListModel model;
+    private TaskServer server;
+    private final List<String> changes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = new TaskRepository(new File(dir, "tasks.dat"), new File(dir, "tasks.log"), 10, e -> { });
+        model = new TaskListModel(repository.loadTasks(), 1);
+        repository.attach(model);
+        model.add(new Task(model.allocateId(), "Купить молоко", null, null, Task.NO_DEADLINE));
+        model.add(new Task(model.allocateId(), "Позвонить маме", "Ёлка на даче", null, Task.NO_DEADLINE));
+        model.addTaskListener(new TaskListModel.Listener() {
+            @Override
+            public void taskAdded(int index, Task task) {
+                changes.add("added");
+            }
+
+            @Override
+            public void taskUpdated(int index, Task task) {
+                changes.add("updated");
+            }
+
+            @Override
+            public void taskRemoved(int index, Task task) {
+                changes.add("removed");
+            }
+        });
+        server = new TaskServer(repository, 0, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+        repository.close();
+    }
+
+    @Test
+    void tokenIsWrittenNextToTheTasks() throws IOException {
+        File tokenFile = new File(dir, "tasks.dat" + TaskServer.TOKEN_SUFFIX);
+        assertEquals(server.getToken(), Files.readString(tokenFile.toPath()).trim());
+        server.close();
+        assertTrue(!tokenFile.exists());
+    }
+
+    @Test
+    void rejectsRequestsWithoutToken() throws IOException {
+        assertEquals(401, status(request("GET", "/tasks", host(), null, null, null)));
+        assertEquals(401, status(request("GET", "/tasks", host(), "wrong", null, null)));
+        assertEquals(200, status(request("GET", "/tasks", host(), server.getToken(), null, null)));
+    }
+
+    @Test
+    void rejectsForeignHostAndAnyOrigin() throws IOException {
+        assertEquals(403, status(request("GET", "/tasks", "evil.example:" + server.getPort(), server.getToken(), null, null)));
+        assertEquals(403, status(request("GET", "/tasks", "127.0.0.1", server.getToken(), null, null)));
+        assertEquals(200, status(request("GET", "/tasks", "localhost:" + server.getPort(), server.getToken(), null, null)));
+        String withOrigin = send("GET /tasks HTTP/1.1\r\nHost: " + host() + "\r\nAuthorization: Bearer " + server.getToken()
+                + "\r\nOrigin: http://evil.example\r\nConnection: close\r\n\r\n");
+        assertEquals(403, status(withOrigin));
+    }
+
+    @Test
+    void rejectsSimpleContentTypesOnChanges() throws IOException {
+        String body = "{\"title\":\"Из формы\"}";
+        assertEquals(415, status(request("POST", "/tasks", host(), server.getToken(), "text/plain", body)));
+        assertEquals(415, status(request("POST", "/tasks", host(), server.getToken(), null, body)));
+        assertEquals(2, model.getSize());
+    }
+
+    @Test
+    void createIsOneChange() throws IOException {
+        String response = request("POST", "/tasks", host(), server.getToken(), "application/x-ndjson",
+                "{\"title\":\"Готово сразу\",\"completed\":true}");
+        assertEquals(201, status(response));
+        assertEquals(List.of("added"), changes);
+        assertTrue(model.getElementAt(2).isCompleted());
+    }
+
+    @Test
+    void replaceIsOneChange() throws IOException {
+        String response = request("PUT", "/tasks/1", host(), server.getToken(), "application/json",
+                "{\"title\":\"Купить кефир\",\"tag\":\"🛒 Покупки\",\"completed\":true}");
+        assertEquals(200, status(response));
+        assertEquals(List.of("updated"), changes);
+        Task task = model.getById(1);
+        assertEquals("Купить кефир", task.getTitle());
+        assertTrue(task.isCompleted());
+    }
+
+    @Test
+    void searchUsesTheWindowSearchAndSkipsEmptyDescriptions() throws IOException {
+        String found = request("GET", "/tasks?q=%D0%B5%D0%BB%D0%BA", host(), server.getToken(), null, null);
+        assertEquals(200, status(found));
+        assertTrue(found.contains("Позвонить маме"), found);
+        String byPrefix = request("GET", "/tasks?q=%D0%BC%D0%BE%D0%BB", host(), server.getToken(), null, null);
+        assertTrue(byPrefix.contains("Купить молоко"), byPrefix);
+    }
+
+    @Test
+    void internalErrorsDoNotReachTheClient() throws IOException {
+        server.close();
+        server = new TaskServer(repository, 0, action -> {
+            throw new IllegalStateException("/home/user/tasks.dat недоступен");
+        });
+        String response = request("DELETE", "/tasks/1", host(), server.getToken(), null, null);
+        assertEquals(500, status(response));
+        assertFalse(response.contains("IllegalStateException"), response);
+        assertFalse(response.contains("/home/user"), response);
+        assertEquals(2, model.getSize());
+    }
+
+    private String host() {
+        return "127.0.0.1:" + server.getPort();
+    }
+
+    private String request(String method, String path, String host, String token, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        StringBuilder head = new StringBuilder();
+        head.append(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(host).append("\r\n");
+        if (token != null) {
+            head.append("Authorization: Bearer ").append(token).append("\r\n");
+        }
+        if (contentType != null) {
+            head.append("Content-Type: ").append(contentType).append("\r\n");
+        }
+        if (body != null) {
+            head.append("Content-Length: ").append(bytes.length).append("\r\n");
+        }
+        head.append("Connection: close\r\n\r\n");
+        return send(head + (body == null ? "" : body));
+    }
+
+    // Запрос как есть: HttpClient не даёт задать свой заголовок Host.
+    private String send(String request) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(request.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static int status(String response) {
+        return Integer.parseInt(response.substring(9, 12));
+    }
+}
@@ -0,0 +1,32 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TaskTableTest {
+    @Test
+    void indexOfFollowsRowsThroughInsertsAndRemovals() {
+        TaskTable table = new TaskTable(0);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 2; id <= 2000; id += 2) {
+            tasks.add(new Task(id, "Задача " + id, "", null, Task.NO_DEADLINE));
+        }
+        table.addAll(tasks);
+        // нечётные id встают между чётными, как задачи других процессов
+        for (int id = 1; id <= 99; id += 2) {
+            table.insert(table.indexAfter(id), new Task(id, "Задача " + id, "", null, Task.NO_DEADLINE));
+        }
+        table.insert(table.size(), new Task(5000, "Последняя", "", null, Task.NO_DEADLINE));
+        table.remove(table.indexOf(4));
+        table.removeAll(new int[] {table.indexOf(1), table.indexOf(50), table.indexOf(1000)});
+
+        assertEquals(-1, table.indexOf(4));
+        assertEquals(-1, table.indexOf(1000));
+        assertEquals(-1, table.indexOf(101));
+        for (int row = 0; row < table.size(); row++) {
+            assertEquals(row, table.indexOf(table.id(row)));
+        }
+        assertEquals(1000 + 50 + 1 - 4, table.size());
+    }
+}